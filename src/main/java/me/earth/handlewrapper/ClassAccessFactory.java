@@ -0,0 +1,303 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.ClassAccess;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_VARARGS;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.RETURN;
+
+/**
+ * Creates {@link ClassAccess}es. Instead of one {@link me.earth.handlewrapper.wrappers.HandleWrapper}
+ * per member, one class is generated per target class. It holds a
+ * <b>static final</b> MethodHandle for every member and selects it by index:
+ *
+ * <blockquote><pre>{@code
+ * public class SomeClass_accessID extends ClassAccess {
+ *     private static final MethodHandle HANDLE_0; // getter for field 0
+ *     ...
+ *
+ *     public Object get(int index, Object target) throws Throwable {
+ *         switch (index) {
+ *             case 0: return HANDLE_0.invokeExact((SomeClass) target);
+ *             case 1: return HANDLE_1.invokeExact((SomeClass) target);
+ *             default: throw badIndex(index);
+ *         }
+ *     }
+ *
+ *     ...
+ * }
+ * }</pre></blockquote>
+ */
+public class ClassAccessFactory {
+    private static final String CTR_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Field[].class), Type.getType(Method[].class), Type.getType(Constructor[].class));
+
+    private ClassAccessFactory() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Creates a {@link ClassAccess} for all fields and methods declared
+     * by the given class and its superclasses (except {@link Object}),
+     * and for all constructors of the given class. Fields and methods of
+     * the class itself come first, followed by those of its superclasses.
+     * Synthetic members, overridden methods and members that can't be
+     * made accessible are left out.
+     * <p>
+     * <p>Creating a ClassAccess is expensive, it should be created once
+     * and then be reused.
+     *
+     * @param type the class to create a ClassAccess for.
+     * @return a ClassAccess for the given class.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static ClassAccess create(Class<?> type) throws Throwable {
+        if (type.isInterface() || type.isArray() || type.isPrimitive()) {
+            throw new IllegalArgumentException("Can't create a ClassAccess for " + type.getName() + ".");
+        }
+
+        List<Field> fields = new ArrayList<>();
+        List<Method> methods = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!field.isSynthetic() && makeAccessible(field)) {
+                    fields.add(field);
+                }
+            }
+
+            for (Method method : c.getDeclaredMethods()) {
+                if (!method.isSynthetic() && !method.isBridge()
+                        && signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))
+                        && makeAccessible(method)) {
+                    methods.add(method);
+                }
+            }
+        }
+
+        List<Constructor<?>> constructors = new ArrayList<>();
+        if (!Modifier.isAbstract(type.getModifiers())) {
+            for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+                if (!constructor.isSynthetic() && makeAccessible(constructor)) {
+                    constructors.add(constructor);
+                }
+            }
+        }
+
+        // Layout of the handles: getters, setters, methods, constructors.
+        // Final fields get no setter, setterIndices point into the handles.
+        List<MethodHandle> handles = new ArrayList<>();
+        int[] setterIndices = new int[fields.size()];
+        for (Field field : fields) {
+            handles.add(Util.erase(MethodHandles.lookup().unreflectGetter(field)));
+        }
+
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            if (Modifier.isFinal(field.getModifiers())) {
+                setterIndices[i] = -1;
+            } else {
+                setterIndices[i] = handles.size();
+                handles.add(Util.erase(MethodHandles.lookup().unreflectSetter(field)));
+            }
+        }
+
+        int methodOffset = handles.size();
+        for (Method method : methods) {
+            handles.add(Util.erase(MethodHandles.lookup().unreflect(method)));
+        }
+
+        int ctrOffset = handles.size();
+        for (Constructor<?> constructor : constructors) {
+            handles.add(Util.erase(MethodHandles.lookup().unreflectConstructor(constructor)));
+        }
+
+        MethodHandle[] handleArray = handles.toArray(new MethodHandle[0]);
+        int[] ids = Util.ids(handleArray.length);
+        int id = ids.length == 0 ? Handles.nextId() : ids[0];
+        String name = Util.className(type, "access", id);
+        String description = name.replace(".", "/");
+        String superName = Type.getInternalName(ClassAccess.class);
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, superName, ids);
+        Util.constructor(cw, superName, CTR_DESC);
+
+        buildGet(cw, description, superName, fields, handleArray);
+        buildSet(cw, description, superName, setterIndices, handleArray);
+        buildInvoke(cw, description, superName, methods, methodOffset, handleArray);
+        buildNewInstance(cw, description, superName, constructors.size(), ctrOffset, handleArray);
+        cw.visitEnd();
+
+        Class<?> accessClass = Util.define(cw, name, type.getClassLoader(), ids, handleArray);
+        return (ClassAccess) accessClass.getConstructor(Field[].class, Method[].class, Constructor[].class)
+                                        .newInstance(fields.toArray(new Field[0]),
+                                                     methods.toArray(new Method[0]),
+                                                     constructors.toArray(new Constructor<?>[0]));
+    }
+
+    // Object get(int index, Object target)
+    private static void buildGet(ClassWriter cw, String description, String superName, List<Field> fields, MethodHandle[] handles) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "get", "(ILjava/lang/Object;)Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
+        Label[] labels = beginSwitch(mv, superName, fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            mv.visitLabel(labels[i]);
+            MethodType type = handles[i].type();
+            Util.getHandle(mv, description, i);
+            if (!Modifier.isStatic(fields.get(i).getModifiers())) {
+                mv.visitVarInsn(ALOAD, 2);
+                Util.unbox(Type.getType(type.parameterType(0)), mv);
+            }
+
+            invokeExact(mv, type);
+            Util.box(Type.getType(type.returnType()), mv);
+            mv.visitInsn(ARETURN);
+        }
+
+        endSwitch(mv);
+    }
+
+    // void set(int index, Object target, Object value)
+    private static void buildSet(ClassWriter cw, String description, String superName, int[] setterIndices, MethodHandle[] handles) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "set", "(ILjava/lang/Object;Ljava/lang/Object;)V", null, new String[]{"java/lang/Throwable"});
+        Label[] labels = beginSwitch(mv, superName, setterIndices.length);
+        for (int i = 0; i < setterIndices.length; i++) {
+            mv.visitLabel(labels[i]);
+            int handle = setterIndices[i];
+            if (handle < 0) {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ILOAD, 1);
+                mv.visitMethodInsn(INVOKEVIRTUAL, superName, "readOnly", "(I)Ljava/lang/IllegalArgumentException;", false);
+                mv.visitInsn(ATHROW);
+                continue;
+            }
+
+            MethodType type = handles[handle].type();
+            Util.getHandle(mv, description, handle);
+            if (type.parameterCount() == 2) {
+                mv.visitVarInsn(ALOAD, 2);
+                Util.unbox(Type.getType(type.parameterType(0)), mv);
+            }
+
+            mv.visitVarInsn(ALOAD, 3);
+            Util.unbox(Type.getType(type.parameterType(type.parameterCount() - 1)), mv);
+            invokeExact(mv, type);
+            mv.visitInsn(RETURN);
+        }
+
+        endSwitch(mv);
+    }
+
+    // Object invoke(int index, Object target, Object...args)
+    private static void buildInvoke(ClassWriter cw, String description, String superName, List<Method> methods, int offset, MethodHandle[] handles) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_VARARGS, "invoke", "(ILjava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
+        Label[] labels = beginSwitch(mv, superName, methods.size());
+        for (int i = 0; i < methods.size(); i++) {
+            mv.visitLabel(labels[i]);
+            MethodType type = handles[offset + i].type();
+            Util.getHandle(mv, description, offset + i);
+            int param = 0;
+            if (!Modifier.isStatic(methods.get(i).getModifiers())) {
+                mv.visitVarInsn(ALOAD, 2);
+                Util.unbox(Type.getType(type.parameterType(0)), mv);
+                param = 1;
+            }
+
+            for (int arg = 0; param < type.parameterCount(); param++, arg++) {
+                Util.loadElement(mv, 3, arg, Type.getType(type.parameterType(param)));
+            }
+
+            invokeExact(mv, type);
+            Util.box(Type.getType(type.returnType()), mv);
+            mv.visitInsn(ARETURN);
+        }
+
+        endSwitch(mv);
+    }
+
+    // Object newInstance(int index, Object...args)
+    private static void buildNewInstance(ClassWriter cw, String description, String superName, int amount, int offset, MethodHandle[] handles) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_VARARGS, "newInstance", "(I[Ljava/lang/Object;)Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
+        Label[] labels = beginSwitch(mv, superName, amount);
+        for (int i = 0; i < amount; i++) {
+            mv.visitLabel(labels[i]);
+            MethodType type = handles[offset + i].type();
+            Util.getHandle(mv, description, offset + i);
+            for (int param = 0; param < type.parameterCount(); param++) {
+                Util.loadElement(mv, 2, param, Type.getType(type.parameterType(param)));
+            }
+
+            invokeExact(mv, type);
+            mv.visitInsn(ARETURN);
+        }
+
+        endSwitch(mv);
+    }
+
+    /**
+     * Begins the method with a tableswitch over the index in local 1,
+     * the default case throws {@link ClassAccess}'s badIndex Exception.
+     * The returned labels need to be visited for each case.
+     */
+    private static Label[] beginSwitch(MethodVisitor mv, String superName, int cases) {
+        mv.visitCode();
+        Label[] labels = new Label[cases];
+        for (int i = 0; i < cases; i++) {
+            labels[i] = new Label();
+        }
+
+        if (cases > 0) {
+            Label dflt = new Label();
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitTableSwitchInsn(0, cases - 1, dflt, labels);
+            mv.visitLabel(dflt);
+        }
+
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, superName, "badIndex", "(I)Ljava/lang/IndexOutOfBoundsException;", false);
+        mv.visitInsn(ATHROW);
+        return labels;
+    }
+
+    private static void endSwitch(MethodVisitor mv) {
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void invokeExact(MethodVisitor mv, MethodType type) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", type.toMethodDescriptorString(), false);
+    }
+
+    private static boolean makeAccessible(AccessibleObject object) {
+        try {
+            object.setAccessible(true);
+            return true;
+        } catch (RuntimeException e) { // SecurityException or InaccessibleObjectException
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.BufferCodec;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.I2B;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.RETURN;
+
+/**
+ * Creates {@link BufferCodec}s. The generated class holds a <b>static final</b>
+ * getter and setter handle for every field and the constructor handle,
+ * reading and writing happens in straight-line code without boxing:
+ *
+ * <blockquote><pre>{@code
+ * public class SomeClass_codecID extends BufferCodec {
+ *     private static final MethodHandle HANDLE_0; // constructor
+ *     private static final MethodHandle HANDLE_1; // getter for int foo
+ *     private static final MethodHandle HANDLE_2; // setter for int foo
+ *     ...
+ *
+ *     public void write(Object object, ByteBuffer buffer) throws Throwable {
+ *         buffer.putInt((int) HANDLE_1.invokeExact((SomeClass) object));
+ *         ...
+ *     }
+ *
+ *     public Object read(ByteBuffer buffer) throws Throwable {
+ *         SomeClass object = (SomeClass) HANDLE_0.invokeExact();
+ *         HANDLE_2.invokeExact(object, buffer.getInt());
+ *         ...
+ *         return object;
+ *     }
+ * }
+ * }</pre></blockquote>
+ *
+ * Supported field types are primitives and Strings, booleans are
+ * written as one byte.
+ */
+public class CodecFactory {
+    private static final String BUFFER = "java/nio/ByteBuffer";
+
+    private CodecFactory() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Creates a {@link BufferCodec} for all non static, non transient fields
+     * of the given class and its superclasses. Fields of superclasses
+     * are written first, then in declaration order.
+     *
+     * @param type the class, needs a constructor without parameters.
+     * @return a BufferCodec for the given class.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static BufferCodec create(Class<?> type) throws Throwable {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                int mod = field.getModifiers();
+                if (!Modifier.isStatic(mod) && !Modifier.isTransient(mod) && !field.isSynthetic()) {
+                    fields.add(field);
+                }
+            }
+        }
+
+        return create(type, fields.toArray(new Field[0]));
+    }
+
+    /**
+     * Creates a {@link BufferCodec} that writes and reads the given
+     * fields in the given order.
+     *
+     * @param type the class, needs a constructor without parameters.
+     * @param fields non static fields of the class or its superclasses.
+     * @return a BufferCodec for the given class.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static BufferCodec create(Class<?> type, Field...fields) throws Throwable {
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        // Layout of the handles: constructor, then getter and setter for every field.
+        MethodHandle[] handles = new MethodHandle[1 + fields.length * 2];
+        handles[0] = Util.erase(MethodHandles.lookup().unreflectConstructor(constructor));
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            if (Modifier.isStatic(field.getModifiers())) {
+                throw new IllegalArgumentException("Field: " + field.getName() + " is static.");
+            } else if (!field.getDeclaringClass().isAssignableFrom(type)) {
+                throw new IllegalArgumentException("Field: " + field.getName() + " doesn't belong to " + type.getName() + ".");
+            } else if (!field.getType().isPrimitive() && field.getType() != String.class) {
+                throw new IllegalArgumentException("Field: " + field.getName() + " has unsupported type " + field.getType().getName() + ".");
+            }
+
+            field.setAccessible(true);
+            handles[1 + i * 2] = Util.erase(MethodHandles.lookup().unreflectGetter(field));
+            handles[2 + i * 2] = Util.erase(MethodHandles.lookup().unreflectSetter(field));
+        }
+
+        int[] ids = Util.ids(handles.length);
+        String name = Util.className(type, "codec", ids[0]);
+        String description = name.replace(".", "/");
+        String superName = Type.getInternalName(BufferCodec.class);
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, superName, ids);
+        Util.constructor(cw, superName, "()V");
+        buildWrite(cw, description, superName, fields, handles);
+        buildRead(cw, description, superName, fields, handles);
+        cw.visitEnd();
+
+        return (BufferCodec) Util.instantiate(cw, name, type.getClassLoader(), ids, handles);
+    }
+
+    private static void buildWrite(ClassWriter cw, String description, String superName, Field[] fields, MethodHandle[] handles) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "write", "(Ljava/lang/Object;Ljava/nio/ByteBuffer;)V", null, new String[]{"java/lang/Throwable"});
+        mv.visitCode();
+        for (int i = 0; i < fields.length; i++) {
+            int handle = 1 + i * 2;
+            MethodType type = handles[handle].type();
+            mv.visitVarInsn(ALOAD, 2);
+            Util.getHandle(mv, description, handle);
+            mv.visitVarInsn(ALOAD, 1);
+            Util.unbox(Type.getType(type.parameterType(0)), mv);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", type.toMethodDescriptorString(), false);
+            put(mv, superName, Type.getType(fields[i].getType()));
+        }
+
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void buildRead(ClassWriter cw, String description, String superName, Field[] fields, MethodHandle[] handles) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "read", "(Ljava/nio/ByteBuffer;)Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
+        mv.visitCode();
+        Util.getHandle(mv, description, 0);
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", handles[0].type().toMethodDescriptorString(), false);
+        mv.visitVarInsn(ASTORE, 2);
+        for (int i = 0; i < fields.length; i++) {
+            int handle = 2 + i * 2;
+            MethodType type = handles[handle].type();
+            Util.getHandle(mv, description, handle);
+            mv.visitVarInsn(ALOAD, 2);
+            Util.unbox(Type.getType(type.parameterType(0)), mv);
+            mv.visitVarInsn(ALOAD, 1);
+            get(mv, superName, Type.getType(fields[i].getType()));
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", type.toMethodDescriptorString(), false);
+        }
+
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    // Stack: buffer, value -> empty
+    private static void put(MethodVisitor mv, String superName, Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                mv.visitInsn(I2B);
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "put", "(B)Ljava/nio/ByteBuffer;", false);
+                break;
+            case Type.BYTE:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "put", "(B)Ljava/nio/ByteBuffer;", false);
+                break;
+            case Type.CHAR:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "putChar", "(C)Ljava/nio/ByteBuffer;", false);
+                break;
+            case Type.SHORT:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "putShort", "(S)Ljava/nio/ByteBuffer;", false);
+                break;
+            case Type.INT:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "putInt", "(I)Ljava/nio/ByteBuffer;", false);
+                break;
+            case Type.FLOAT:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "putFloat", "(F)Ljava/nio/ByteBuffer;", false);
+                break;
+            case Type.LONG:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "putLong", "(J)Ljava/nio/ByteBuffer;", false);
+                break;
+            case Type.DOUBLE:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "putDouble", "(D)Ljava/nio/ByteBuffer;", false);
+                break;
+            default: // String
+                mv.visitMethodInsn(INVOKESTATIC, superName, "writeString", "(Ljava/nio/ByteBuffer;Ljava/lang/String;)V", false);
+                return;
+        }
+
+        mv.visitInsn(POP);
+    }
+
+    // Stack: buffer -> value
+    private static void get(MethodVisitor mv, String superName, Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "get", "()B", false);
+                // any byte but 0 is true, like Flyweights and Columns
+                Label isFalse = new Label();
+                Label end = new Label();
+                mv.visitJumpInsn(IFEQ, isFalse);
+                mv.visitInsn(ICONST_1);
+                mv.visitJumpInsn(GOTO, end);
+                mv.visitLabel(isFalse);
+                mv.visitInsn(ICONST_0);
+                mv.visitLabel(end);
+                break;
+            case Type.BYTE:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "get", "()B", false);
+                break;
+            case Type.CHAR:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "getChar", "()C", false);
+                break;
+            case Type.SHORT:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "getShort", "()S", false);
+                break;
+            case Type.INT:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "getInt", "()I", false);
+                break;
+            case Type.FLOAT:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "getFloat", "()F", false);
+                break;
+            case Type.LONG:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "getLong", "()J", false);
+                break;
+            case Type.DOUBLE:
+                mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "getDouble", "()D", false);
+                break;
+            default: // String
+                mv.visitMethodInsn(INVOKESTATIC, superName, "readString", "(Ljava/nio/ByteBuffer;)Ljava/lang/String;", false);
+        }
+    }
+
+}
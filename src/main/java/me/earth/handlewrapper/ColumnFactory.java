@@ -0,0 +1,324 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.Column;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IADD;
+import static org.objectweb.asm.Opcodes.IALOAD;
+import static org.objectweb.asm.Opcodes.IASTORE;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IF_ICMPGE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.IMUL;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.RETURN;
+
+/**
+ * Creates {@link Column}s, which copy one field of many objects into
+ * an array and back. Calling a getter wrapper per object boxes every
+ * value. Instead the created class holds the getter and setter as
+ * <b>static final</b> MethodHandles and loops over the objects:
+ *
+ * <blockquote><pre>{@code
+ * public class SomeClass_columnID extends Column {
+ *     private static final MethodHandle HANDLE_0; // getter
+ *     private static final MethodHandle HANDLE_1; // setter
+ *
+ *     protected void gather0(Object[] src, int srcFrom, Object dst, int dstFrom, int length) {
+ *         int[] array = (int[]) dst;
+ *         for (int i = 0; i < length; i++) {
+ *             array[dstFrom + i] = (int) HANDLE_0.invokeExact((SomeClass) src[srcFrom + i]);
+ *         }
+ *     }
+ *
+ *     protected void scatter0(Object src, int srcFrom, Object[] dst, int dstFrom, int length) {
+ *         int[] array = (int[]) src;
+ *         for (int i = 0; i < length; i++) {
+ *             HANDLE_1.invokeExact((SomeClass) dst[dstFrom + i], array[srcFrom + i]);
+ *         }
+ *     }
+ *
+ *     ... // the same for Lists and ByteBuffers
+ * }
+ * }</pre></blockquote>
+ */
+public class ColumnFactory {
+    private static final String BUFFER = Type.getInternalName(ByteBuffer.class);
+    private static final String BUFFER_DESC = Type.getDescriptor(ByteBuffer.class);
+
+    private ColumnFactory() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param type the class whose objects will be accessed.
+     * @param field the name of a non static field of the class or its superclasses.
+     * @return a Column for the field.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static Column create(Class<?> type, String field) throws Throwable {
+        Field f = Util.findField(type, field);
+        if (f == null) {
+            throw new IllegalArgumentException("Field: " + field + " doesn't exist in " + type.getName() + ".");
+        }
+
+        return create(f);
+    }
+
+    /**
+     * Creates a Column for the given field. Scattering a final field
+     * throws an {@link IllegalArgumentException}.
+     *
+     * @param field a non static field.
+     * @return a Column for the field.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static Column create(Field field) throws Throwable {
+        if (Modifier.isStatic(field.getModifiers())) {
+            throw new IllegalArgumentException("Field: " + field.getName() + " is static.");
+        }
+
+        field.setAccessible(true);
+        boolean writable = !Modifier.isFinal(field.getModifiers());
+        MethodHandle getter = Util.erase(MethodHandles.lookup().unreflectGetter(field));
+        MethodHandle[] handles = writable
+            ? new MethodHandle[]{getter, Util.erase(MethodHandles.lookup().unreflectSetter(field))}
+            : new MethodHandle[]{getter};
+
+        Type valueType = Type.getType(getter.type().returnType());
+        int bytes = field.getType().isPrimitive() ? Util.sizeOf(field.getType()) : 0;
+        int[] ids = Util.ids(handles.length);
+        String name = Util.className(field.getDeclaringClass(), "column", ids[0]);
+        String description = name.replace(".", "/");
+        String superName = Type.getInternalName(Column.class);
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, superName, ids);
+        Util.constructor(cw, superName, "(Ljava/lang/reflect/Field;I)V");
+
+        Type ownerType = Type.getType(getter.type().parameterType(0));
+        String arrayDesc = field.getType().isPrimitive() ? "[" + valueType.getDescriptor() : "[Ljava/lang/Object;";
+        buildGather(cw, description, ownerType, valueType, arrayDesc, false);
+        buildGather(cw, description, ownerType, valueType, arrayDesc, true);
+        buildGatherBuffer(cw, description, ownerType, valueType, bytes);
+        buildScatter(cw, description, superName, ownerType, valueType, arrayDesc, writable);
+        buildScatterBuffer(cw, description, superName, ownerType, valueType, bytes, writable);
+        cw.visitEnd();
+
+        Class<?> columnClass = Util.define(cw, name, field.getDeclaringClass().getClassLoader(), ids, handles);
+        return (Column) columnClass.getConstructor(Field.class, int.class).newInstance(field, bytes);
+    }
+
+    // gather0(Object[] or List src, int srcFrom, Object dst, int dstFrom, int length)
+    private static void buildGather(ClassWriter cw, String description, Type ownerType, Type valueType, String arrayDesc, boolean list) {
+        String srcDesc = list ? "Ljava/util/List;" : "[Ljava/lang/Object;";
+        MethodVisitor mv = cw.visitMethod(ACC_PROTECTED, "gather0", "(" + srcDesc + "ILjava/lang/Object;II)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitTypeInsn(CHECKCAST, arrayDesc);
+        mv.visitVarInsn(ASTORE, 6);
+
+        Label[] loop = beginLoop(mv);
+        mv.visitVarInsn(ALOAD, 6);
+        index(mv, 4);
+        loadObject(mv, description, 1, list, ownerType);
+        getValue(mv, ownerType, valueType);
+        mv.visitInsn(valueType.getOpcode(IASTORE));
+        endLoop(mv, loop);
+    }
+
+    // gather0(Object[] src, int srcFrom, ByteBuffer dst, int index, int length)
+    private static void buildGatherBuffer(ClassWriter cw, String description, Type ownerType, Type valueType, int bytes) {
+        MethodVisitor mv = cw.visitMethod(ACC_PROTECTED, "gather0", "([Ljava/lang/Object;I" + BUFFER_DESC + "II)V", null, null);
+        mv.visitCode();
+        if (bytes == 0) { // not reachable, Column checks this
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+            return;
+        }
+
+        Label[] loop = beginLoop(mv);
+        mv.visitVarInsn(ALOAD, 3);
+        bufferIndex(mv, bytes);
+        loadObject(mv, description, 1, false, ownerType);
+        getValue(mv, ownerType, valueType);
+        String descriptor = valueType.getSort() == Type.BOOLEAN ? "B" : valueType.getDescriptor();
+        mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "put" + suffix(valueType), "(I" + descriptor + ")" + BUFFER_DESC, false);
+        mv.visitInsn(POP);
+        endLoop(mv, loop);
+    }
+
+    // scatter0(Object src, int srcFrom, Object[] dst, int dstFrom, int length)
+    private static void buildScatter(ClassWriter cw, String description, String superName, Type ownerType, Type valueType, String arrayDesc, boolean writable) {
+        MethodVisitor mv = cw.visitMethod(ACC_PROTECTED, "scatter0", "(Ljava/lang/Object;I[Ljava/lang/Object;II)V", null, null);
+        mv.visitCode();
+        if (!writable) {
+            readOnly(mv, superName);
+            return;
+        }
+
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, arrayDesc);
+        mv.visitVarInsn(ASTORE, 6);
+
+        Label[] loop = beginLoop(mv);
+        loadObject(mv, description, 3, false, ownerType);
+        mv.visitVarInsn(ALOAD, 6);
+        index(mv, 2);
+        mv.visitInsn(valueType.getOpcode(IALOAD));
+        if (valueType.getSort() == Type.OBJECT || valueType.getSort() == Type.ARRAY) {
+            mv.visitTypeInsn(CHECKCAST, valueType.getInternalName());
+        }
+
+        setValue(mv, ownerType, valueType);
+        endLoop(mv, loop);
+    }
+
+    // scatter0(ByteBuffer src, int index, Object[] dst, int dstFrom, int length)
+    private static void buildScatterBuffer(ClassWriter cw, String description, String superName, Type ownerType, Type valueType, int bytes, boolean writable) {
+        MethodVisitor mv = cw.visitMethod(ACC_PROTECTED, "scatter0", "(" + BUFFER_DESC + "I[Ljava/lang/Object;II)V", null, null);
+        mv.visitCode();
+        if (!writable) {
+            readOnly(mv, superName);
+            return;
+        } else if (bytes == 0) { // not reachable, Column checks this
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+            return;
+        }
+
+        Label[] loop = beginLoop(mv);
+        loadObject(mv, description, 3, false, ownerType);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ILOAD, 2);
+        mv.visitVarInsn(ILOAD, 7);
+        mv.visitLdcInsn(bytes);
+        mv.visitInsn(IMUL);
+        mv.visitInsn(IADD);
+        if (valueType.getSort() == Type.BOOLEAN) {
+            mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "get", "(I)B", false);
+            // any byte but 0 is true
+            Label isFalse = new Label();
+            Label end = new Label();
+            mv.visitJumpInsn(IFEQ, isFalse);
+            mv.visitInsn(ICONST_1);
+            mv.visitJumpInsn(GOTO, end);
+            mv.visitLabel(isFalse);
+            mv.visitInsn(ICONST_0);
+            mv.visitLabel(end);
+        } else {
+            mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "get" + suffix(valueType), "(I)" + valueType.getDescriptor(), false);
+        }
+
+        setValue(mv, ownerType, valueType);
+        endLoop(mv, loop);
+    }
+
+    /**
+     * Emits <tt>for (int i = 0; i < length; i++) {</tt>,
+     * with i in local 7 and length in local 5.
+     */
+    private static Label[] beginLoop(MethodVisitor mv) {
+        Label condition = new Label();
+        Label end = new Label();
+        mv.visitInsn(ICONST_0);
+        mv.visitVarInsn(ISTORE, 7);
+        mv.visitLabel(condition);
+        mv.visitVarInsn(ILOAD, 7);
+        mv.visitVarInsn(ILOAD, 5);
+        mv.visitJumpInsn(IF_ICMPGE, end);
+        return new Label[]{condition, end};
+    }
+
+    private static void endLoop(MethodVisitor mv, Label[] loop) {
+        mv.visitIincInsn(7, 1);
+        mv.visitJumpInsn(GOTO, loop[0]);
+        mv.visitLabel(loop[1]);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    // Stack: -> from + i
+    private static void index(MethodVisitor mv, int fromVar) {
+        mv.visitVarInsn(ILOAD, fromVar);
+        mv.visitVarInsn(ILOAD, 7);
+        mv.visitInsn(IADD);
+    }
+
+    // Stack: -> index + i * bytes, with the index in local 4
+    private static void bufferIndex(MethodVisitor mv, int bytes) {
+        mv.visitVarInsn(ILOAD, 4);
+        mv.visitVarInsn(ILOAD, 7);
+        mv.visitLdcInsn(bytes);
+        mv.visitInsn(IMUL);
+        mv.visitInsn(IADD);
+    }
+
+    // Stack: -> HANDLE_n?, object. The getter handle is loaded by getValue, the setter handle here.
+    private static void loadObject(MethodVisitor mv, String description, int var, boolean list, Type ownerType) {
+        Util.getHandle(mv, description, var == 1 ? 0 : 1);
+        mv.visitVarInsn(ALOAD, var);
+        index(mv, var == 1 ? 2 : 4);
+        if (list) {
+            mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "get", "(I)Ljava/lang/Object;", true);
+        } else {
+            mv.visitInsn(AALOAD);
+        }
+
+        mv.visitTypeInsn(CHECKCAST, ownerType.getInternalName());
+    }
+
+    // Stack: HANDLE_0, object -> value
+    private static void getValue(MethodVisitor mv, Type ownerType, Type valueType) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", Type.getMethodDescriptor(valueType, ownerType), false);
+    }
+
+    // Stack: HANDLE_1, object, value -> empty
+    private static void setValue(MethodVisitor mv, Type ownerType, Type valueType) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", Type.getMethodDescriptor(Type.VOID_TYPE, ownerType, valueType), false);
+    }
+
+    private static void readOnly(MethodVisitor mv, String superName) {
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKEVIRTUAL, superName, "readOnly", "()Ljava/lang/IllegalArgumentException;", false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static String suffix(Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+            case Type.BYTE:
+                return "";
+            default:
+                String name = type.getClassName();
+                return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.ConstantWrapper;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+
+/**
+ * Generates the {@link ConstantWrapper}s for
+ * {@link WrapperFactory#wrapConstant(Field)}. An int constant
+ * <tt>5</tt> results in roughly this:
+ *
+ * <blockquote><pre>{@code
+ * public class SomeClass_constantID extends ConstantWrapper {
+ *     public Object get() {
+ *         return Integer.valueOf(5); // LDC 5
+ *     }
+ *
+ *     public int getInt() {
+ *         return 5;
+ *     }
+ *
+ *     public long getLong() {
+ *         return 5L;
+ *     }
+ *
+ *     ... // getFloat, getDouble
+ * }
+ * }</pre></blockquote>
+ */
+final class ConstantFactory {
+    private static final Class<?>[] PRIMITIVES = {boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class};
+
+    private ConstantFactory() {
+        throw new AssertionError();
+    }
+
+    static ConstantWrapper create(Field field, Object value) throws Throwable {
+        Class<?> type = field.getType();
+        boolean ldc = type.isPrimitive() || type == String.class && value != null;
+        MethodHandle[] handles = ldc ? new MethodHandle[0] : new MethodHandle[]{MethodHandles.constant(Object.class, value)};
+        int[] ids = Util.ids(handles.length);
+        String name = Util.className(field.getDeclaringClass(), "constant", ids.length == 0 ? Handles.nextId() : ids[0]);
+        String description = name.replace(".", "/");
+        String superName = Type.getInternalName(ConstantWrapper.class);
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, superName, ids);
+        Util.constructor(cw, superName, "(Ljava/lang/reflect/Field;)V");
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "get", "()Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        if (ldc) {
+            mv.visitLdcInsn(constant(type, type, value));
+            Util.box(Type.getType(type), mv);
+        } else {
+            Util.getHandle(mv, description, 0);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", "()Ljava/lang/Object;", false);
+        }
+
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        if (type.isPrimitive()) {
+            for (Class<?> to : PRIMITIVES) {
+                if (to == type || Util.widens(type, to)) {
+                    buildGetter(cw, to, constant(type, to, value));
+                }
+            }
+        }
+
+        cw.visitEnd();
+        return (ConstantWrapper) Util.define(cw, name, field.getDeclaringClass().getClassLoader(), ids, handles)
+                                     .getConstructor(Field.class)
+                                     .newInstance(field);
+    }
+
+    // e.g. public long getLong()
+    private static void buildGetter(ClassWriter cw, Class<?> type, Object constant) {
+        String name = type.getName();
+        Type asmType = Type.getType(type);
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1), "()" + asmType.getDescriptor(), null, null);
+        mv.visitCode();
+        mv.visitLdcInsn(constant);
+        Util.makeReturn(mv, asmType);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * @return the value converted to the given type, as the Integer,
+     *         Long, Float, Double or String an LDC instruction takes.
+     */
+    private static Object constant(Class<?> from, Class<?> to, Object value) {
+        if (to == String.class) {
+            return value;
+        } else if (from == boolean.class) {
+            return (Boolean) value ? 1 : 0;
+        }
+
+        Number number = from == char.class ? (int) (Character) value : (Number) value;
+        if (to == long.class) {
+            return number.longValue();
+        } else if (to == float.class) {
+            return number.floatValue();
+        } else if (to == double.class) {
+            return number.doubleValue();
+        }
+
+        return number.intValue(); // boolean, byte, char, short and int are ints in bytecode
+    }
+
+}
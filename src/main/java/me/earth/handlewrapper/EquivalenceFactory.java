@@ -0,0 +1,259 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.Equivalence;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IADD;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IFNONNULL;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.IF_ACMPEQ;
+import static org.objectweb.asm.Opcodes.IF_ICMPNE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.IMUL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.LCMP;
+
+/**
+ * Creates {@link Equivalence}s. The generated class holds a <b>static final</b>
+ * getter handle per field and compares them in straight-line code:
+ *
+ * <blockquote><pre>{@code
+ * public class SomeClass_equivalenceID extends Equivalence {
+ *     private static final MethodHandle HANDLE_0; // int foo
+ *     private static final MethodHandle HANDLE_1; // String bar
+ *
+ *     public boolean equals(Object a, Object b) {
+ *         if (a == b) return true;
+ *         if (a == null || b == null) return false;
+ *         if ((int) HANDLE_0.invokeExact(a) != (int) HANDLE_0.invokeExact(b)) return false;
+ *         if (!Objects.equals((String) HANDLE_1.invokeExact(a), (String) HANDLE_1.invokeExact(b))) return false;
+ *         return true;
+ *     }
+ *
+ *     ...
+ * }
+ * }</pre></blockquote>
+ *
+ * Since the Equivalence methods don't declare a Throwable, an Exception
+ * thrown by a handle (e.g. a ClassCastException for objects of the wrong
+ * type) is rethrown as it is.
+ */
+public class EquivalenceFactory {
+    private static final String OBJ_OBJ = "(Ljava/lang/Object;Ljava/lang/Object;)";
+
+    private EquivalenceFactory() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Calls {@link EquivalenceFactory#create(Class, Field...)} for the fields
+     * with the given names, declared by the class or its superclasses.
+     */
+    public static <T> Equivalence<T> create(Class<T> type, String...fieldNames) throws Throwable {
+        Field[] fields = new Field[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fields[i] = Util.findField(type, fieldNames[i]);
+        }
+
+        return create(type, fields);
+    }
+
+    /**
+     * Creates an {@link Equivalence} for the given fields, which are compared in
+     * the given order. For {@link Equivalence#compare(Object, Object)}
+     * fields that aren't primitive need to be {@link Comparable}.
+     *
+     * @param type the class of the objects to compare.
+     * @param fields non static fields of the class or its superclasses.
+     * @param <T> the type of the objects to compare.
+     * @return an Equivalence for the given fields.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Equivalence<T> create(Class<T> type, Field...fields) throws Throwable {
+        MethodHandle[] handles = new MethodHandle[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            if (Modifier.isStatic(field.getModifiers())) {
+                throw new IllegalArgumentException("Field: " + field.getName() + " is static.");
+            } else if (!field.getDeclaringClass().isAssignableFrom(type)) {
+                throw new IllegalArgumentException("Field: " + field.getName() + " doesn't belong to " + type.getName() + ".");
+            }
+
+            field.setAccessible(true);
+            // Objects are only passed on to Objects.equals, hashCode and compareObjects.
+            MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+            Class<?> rType = field.getType().isPrimitive() ? field.getType() : Object.class;
+            handles[i] = getter.asType(getter.type().changeParameterType(0, Object.class).changeReturnType(rType));
+        }
+
+        int[] ids = Util.ids(handles.length);
+        String name = Util.className(type, "equivalence", ids.length == 0 ? Handles.nextId() : ids[0]);
+        String description = name.replace(".", "/");
+        String superName = Type.getInternalName(Equivalence.class);
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, superName, ids);
+        Util.constructor(cw, superName, "()V");
+        buildEquals(cw, description, handles);
+        buildHashCode(cw, description, handles);
+        buildCompare(cw, description, superName, handles);
+        cw.visitEnd();
+
+        return (Equivalence<T>) Util.instantiate(cw, name, type.getClassLoader(), ids, handles);
+    }
+
+    private static void buildEquals(ClassWriter cw, String description, MethodHandle[] handles) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "equals", OBJ_OBJ + "Z", null, null);
+        mv.visitCode();
+        Label returnTrue = new Label();
+        Label returnFalse = new Label();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitJumpInsn(IF_ACMPEQ, returnTrue);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitJumpInsn(IFNULL, returnFalse);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitJumpInsn(IFNULL, returnFalse);
+
+        for (int i = 0; i < handles.length; i++) {
+            Type type = Type.getType(handles[i].type().returnType());
+            get(mv, description, i, handles[i], 1);
+            get(mv, description, i, handles[i], 2);
+            switch (type.getSort()) {
+                case Type.LONG:
+                    mv.visitInsn(LCMP);
+                    mv.visitJumpInsn(IFNE, returnFalse);
+                    break;
+                case Type.FLOAT:
+                case Type.DOUBLE:
+                    // compare() is 0 exactly when the boxes would be equal.
+                    compare(mv, type);
+                    mv.visitJumpInsn(IFNE, returnFalse);
+                    break;
+                case Type.OBJECT:
+                    mv.visitMethodInsn(INVOKESTATIC, "java/util/Objects", "equals", OBJ_OBJ + "Z", false);
+                    mv.visitJumpInsn(IFEQ, returnFalse);
+                    break;
+                default:
+                    mv.visitJumpInsn(IF_ICMPNE, returnFalse);
+            }
+        }
+
+        mv.visitLabel(returnTrue);
+        mv.visitInsn(ICONST_1);
+        mv.visitInsn(IRETURN);
+        mv.visitLabel(returnFalse);
+        mv.visitInsn(ICONST_0);
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void buildHashCode(ClassWriter cw, String description, MethodHandle[] handles) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "hashCode", "(Ljava/lang/Object;)I", null, null);
+        mv.visitCode();
+        Label notNull = new Label();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitJumpInsn(IFNONNULL, notNull);
+        mv.visitInsn(ICONST_0);
+        mv.visitInsn(IRETURN);
+        mv.visitLabel(notNull);
+
+        // result = 31 * result + hash(field), starting at 1
+        mv.visitInsn(ICONST_1);
+        for (int i = 0; i < handles.length; i++) {
+            Type type = Type.getType(handles[i].type().returnType());
+            mv.visitLdcInsn(31);
+            mv.visitInsn(IMUL);
+            get(mv, description, i, handles[i], 1);
+            switch (type.getSort()) {
+                case Type.INT:
+                    break;
+                case Type.OBJECT:
+                    mv.visitMethodInsn(INVOKESTATIC, "java/util/Objects", "hashCode", "(Ljava/lang/Object;)I", false);
+                    break;
+                default:
+                    mv.visitMethodInsn(INVOKESTATIC, boxName(type), "hashCode", "(" + type.getDescriptor() + ")I", false);
+            }
+
+            mv.visitInsn(IADD);
+        }
+
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void buildCompare(ClassWriter cw, String description, String superName, MethodHandle[] handles) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "compare", OBJ_OBJ + "I", null, null);
+        mv.visitCode();
+        for (int i = 0; i < handles.length; i++) {
+            Type type = Type.getType(handles[i].type().returnType());
+            get(mv, description, i, handles[i], 1);
+            get(mv, description, i, handles[i], 2);
+            if (type.getSort() == Type.OBJECT) {
+                mv.visitMethodInsn(INVOKESTATIC, superName, "compareObjects", OBJ_OBJ + "I", false);
+            } else {
+                compare(mv, type);
+            }
+
+            Label next = new Label();
+            mv.visitVarInsn(ISTORE, 3);
+            mv.visitVarInsn(ILOAD, 3);
+            mv.visitJumpInsn(IFEQ, next);
+            mv.visitVarInsn(ILOAD, 3);
+            mv.visitInsn(IRETURN);
+            mv.visitLabel(next);
+        }
+
+        mv.visitInsn(ICONST_0);
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void get(MethodVisitor mv, String description, int index, MethodHandle handle, int var) {
+        Util.getHandle(mv, description, index);
+        mv.visitVarInsn(ALOAD, var);
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", handle.type().toMethodDescriptorString(), false);
+    }
+
+    // Stack: value, value -> int
+    private static void compare(MethodVisitor mv, Type type) {
+        mv.visitMethodInsn(INVOKESTATIC, boxName(type), "compare", "(" + type.getDescriptor() + type.getDescriptor() + ")I", false);
+    }
+
+    private static String boxName(Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN: return "java/lang/Boolean";
+            case Type.CHAR:    return "java/lang/Character";
+            case Type.BYTE:    return "java/lang/Byte";
+            case Type.SHORT:   return "java/lang/Short";
+            case Type.INT:     return "java/lang/Integer";
+            case Type.FLOAT:   return "java/lang/Float";
+            case Type.LONG:    return "java/lang/Long";
+            case Type.DOUBLE:  return "java/lang/Double";
+            default:
+                throw new IllegalArgumentException("Not a primitive: " + type);
+        }
+    }
+
+}
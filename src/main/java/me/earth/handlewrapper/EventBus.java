@@ -0,0 +1,190 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.EventDispatcher;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.RETURN;
+
+/**
+ * An EventBus that calls {@link Subscribe}d methods through generated
+ * {@link EventDispatcher}s. Looping over a list of
+ * {@link me.earth.handlewrapper.wrappers.HandleWrapper}s is megamorphic
+ * and allocates a varargs array per call. Instead, for every event class
+ * a dispatcher class is generated that holds each listener method, bound
+ * to its listener, as a <b>static final</b> MethodHandle:
+ *
+ * <blockquote><pre>{@code
+ * public class SomeEvent_dispatcherID implements EventDispatcher {
+ *     private static final MethodHandle HANDLE_0; // listener with highest priority
+ *     private static final MethodHandle HANDLE_1;
+ *
+ *     public void dispatch(Object event) throws Throwable {
+ *         HANDLE_0.invokeExact((SomeEvent) event);
+ *         HANDLE_1.invokeExact((SomeEvent) event);
+ *     }
+ * }
+ * }</pre></blockquote>
+ *
+ * Registering and unregistering is copy-on-write: the listeners are
+ * replaced and dispatchers are regenerated lazily on the next post.
+ * Changing listeners is therefore expensive, posting is cheap.
+ */
+public class EventBus {
+    private static final EventDispatcher EMPTY = event -> { };
+
+    private volatile List<Subscriber> subscribers = Collections.emptyList();
+    private volatile Map<Class<?>, EventDispatcher> dispatchers = new ConcurrentHashMap<>();
+
+    /**
+     * Registers all methods annotated with {@link Subscribe} declared by
+     * the listeners class and its superclasses. Static methods are
+     * registered as well, an overridden method only once.
+     *
+     * @param listener the listener to register.
+     * @throws IllegalAccessException if a method can't be accessed.
+     */
+    public synchronized void register(Object listener) throws IllegalAccessException {
+        List<Subscriber> newSubscribers = new ArrayList<>(subscribers);
+        Set<String> signatures = new HashSet<>();
+        for (Class<?> c = listener.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                Subscribe subscribe = method.getAnnotation(Subscribe.class);
+                if (subscribe == null) {
+                    continue;
+                } else if (overrides(method) && !signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+                    continue; // overridden by a method registered already, whose handle dispatches to the same code
+                } else if (method.getParameterTypes().length != 1 || method.getParameterTypes()[0].isPrimitive()) {
+                    throw new IllegalArgumentException("Method: " + method.getName() + " needs exactly one parameter, which isn't primitive.");
+                }
+
+                method.setAccessible(true);
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    handle = handle.bindTo(listener);
+                }
+
+                handle = handle.asType(handle.type().changeReturnType(void.class));
+                newSubscribers.add(new Subscriber(listener, method.getParameterTypes()[0], subscribe.priority(), Util.erase(handle)));
+            }
+        }
+
+        // stable sort, listeners with the same priority keep registration order.
+        newSubscribers.sort((s1, s2) -> Integer.compare(s2.priority, s1.priority));
+        update(newSubscribers);
+    }
+
+    // static and private methods are neither overridden nor do they override.
+    private static boolean overrides(Method method) {
+        return !Modifier.isStatic(method.getModifiers()) && !Modifier.isPrivate(method.getModifiers());
+    }
+
+    /**
+     * Unregisters all methods of the given listener.
+     *
+     * @param listener the listener to unregister.
+     */
+    public synchronized void unregister(Object listener) {
+        List<Subscriber> newSubscribers = new ArrayList<>(subscribers);
+        if (newSubscribers.removeIf(subscriber -> subscriber.listener == listener)) {
+            update(newSubscribers);
+        }
+    }
+
+    /**
+     * Calls all listeners whose parameter type is assignable from
+     * the events class, in order of their priority. The dispatcher
+     * for an event class is generated on the first post.
+     *
+     * @param event the event to post.
+     * @throws Throwable anything thrown by the listeners, or when
+     *                   creating the dispatcher class.
+     */
+    public void post(Object event) throws Throwable {
+        Map<Class<?>, EventDispatcher> dispatchers = this.dispatchers;
+        EventDispatcher dispatcher = dispatchers.get(event.getClass());
+        if (dispatcher == null) {
+            dispatcher = createDispatcher(event.getClass());
+            EventDispatcher previous = dispatchers.putIfAbsent(event.getClass(), dispatcher);
+            dispatcher = previous == null ? dispatcher : previous;
+        }
+
+        dispatcher.dispatch(event);
+    }
+
+    private void update(List<Subscriber> newSubscribers) {
+        // subscribers before dispatchers, a post that sees the new map sees the new subscribers.
+        subscribers = Collections.unmodifiableList(newSubscribers);
+        dispatchers = new ConcurrentHashMap<>();
+    }
+
+    private EventDispatcher createDispatcher(Class<?> eventClass) throws Throwable {
+        List<MethodHandle> handles = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.type.isAssignableFrom(eventClass)) {
+                handles.add(subscriber.handle);
+            }
+        }
+
+        if (handles.isEmpty()) {
+            return EMPTY;
+        }
+
+        MethodHandle[] handleArray = handles.toArray(new MethodHandle[0]);
+        int[] ids = Util.ids(handleArray.length);
+        String name = Util.className(eventClass, "dispatcher", ids[0]);
+        String description = name.replace(".", "/");
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, "java/lang/Object", ids, Type.getInternalName(EventDispatcher.class));
+        Util.constructor(cw, "java/lang/Object", "()V");
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "dispatch", "(Ljava/lang/Object;)V", null, new String[]{"java/lang/Throwable"});
+        mv.visitCode();
+        for (int i = 0; i < handleArray.length; i++) {
+            Util.getHandle(mv, description, i);
+            mv.visitVarInsn(ALOAD, 1);
+            Util.unbox(Type.getType(handleArray[i].type().parameterType(0)), mv);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", handleArray[i].type().toMethodDescriptorString(), false);
+        }
+
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+
+        return (EventDispatcher) Util.instantiate(cw, name, eventClass.getClassLoader(), ids, handleArray);
+    }
+
+    private static final class Subscriber {
+        private final Object listener;
+        private final Class<?> type;
+        private final int priority;
+        private final MethodHandle handle;
+
+        private Subscriber(Object listener, Class<?> type, int priority, MethodHandle handle) {
+            this.listener = listener;
+            this.type = type;
+            this.priority = priority;
+            this.handle = handle;
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+
+/**
+ * A drop-in replacement for {@link Constructor#newInstance(Object...)}
+ * backed by a {@link HandleWrapper}, see {@link FastMethod}.
+ *
+ * @param <T> the class of the constructor.
+ */
+public final class FastConstructor<T> {
+    private static final MemberCache<Constructor<?>, FastConstructor<?>> CACHE = new MemberCache<>();
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Constructor<T> constructor;
+    private final HandleWrapper wrapper;
+    private final Class<?>[] parameterTypes;
+
+    private FastConstructor(Constructor<T> constructor, HandleWrapper wrapper) {
+        this.constructor = constructor;
+        this.wrapper = wrapper;
+        this.parameterTypes = constructor.getParameterTypes();
+    }
+
+    /**
+     * @param constructor the constructor to wrap.
+     * @param <T> the class of the constructor.
+     * @return a FastConstructor for the given constructor.
+     * @throws IllegalAccessException if the constructor isn't accessible,
+     *                                use {@link Constructor#setAccessible(boolean)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FastConstructor<T> of(Constructor<T> constructor) throws IllegalAccessException {
+        FastConstructor<T> fastConstructor = (FastConstructor<T>) CACHE.get(constructor);
+        if (fastConstructor != null && MemberCache.isAccessible(constructor)) {
+            return fastConstructor;
+        }
+
+        if (Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())) {
+            // can't be unreflected, newInstance throws like reflection does.
+            return new FastConstructor<>(constructor, null);
+        }
+
+        MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+        if (fastConstructor != null) {
+            return fastConstructor;
+        }
+
+        handle = handle.asFixedArity()
+                       .asSpreader(Object[].class, constructor.getParameterTypes().length)
+                       .asType(MethodType.methodType(Object.class, Object[].class));
+
+        HandleWrapper wrapper = MemberCache.wrap(handle, constructor, Object.class, Object[].class);
+        return (FastConstructor<T>) CACHE.put(constructor, new FastConstructor<>(constructor, wrapper));
+    }
+
+    /**
+     * Mirrors {@link Constructor#newInstance(Object...)}.
+     *
+     * @param initargs the arguments.
+     * @return the new instance.
+     * @throws InstantiationException if the class is abstract.
+     * @throws IllegalAccessException never, but declared by the reflection API.
+     * @throws IllegalArgumentException if the amount or types of the arguments are wrong.
+     * @throws InvocationTargetException if the constructor throws.
+     */
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object... initargs) throws InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+        if (wrapper == null) {
+            throw new InstantiationException(constructor.getDeclaringClass().getName());
+        }
+
+        if (initargs == null) {
+            initargs = NO_ARGS;
+        }
+
+        if (initargs.length != parameterTypes.length) {
+            throw new IllegalArgumentException("Wrong number of arguments: " + initargs.length + ", expected: " + parameterTypes.length + ".");
+        }
+
+        MemberCache.checkArguments(parameterTypes, initargs);
+        try {
+            return (T) wrapper.invoke((Object) initargs);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * @return the wrapped constructor.
+     */
+    public Constructor<T> getConstructor() {
+        return constructor;
+    }
+
+    @Override
+    public String toString() {
+        return "FastConstructor(" + constructor + ")";
+    }
+
+}
@@ -0,0 +1,240 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.FieldAccessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * A drop-in replacement for {@link Field#get(Object)}, {@link Field#set(Object, Object)}
+ * and their typed variants, see {@link FastMethod}. One {@link FieldAccessor} is
+ * generated per field, its typed methods read and write primitives without boxing.
+ * Like reflection, they allow widening conversions, e.g.
+ * {@link FastField#getLong(Object)} for an int field, but not narrowing ones.
+ */
+public final class FastField {
+    private static final MemberCache<Field, FastField> CACHE = new MemberCache<>();
+
+    private final Field field;
+    private final Class<?> type;
+    private final Class<?> declaringClass;
+    private final boolean isStatic;
+    private final boolean writable;
+    private final FieldAccessor accessor;
+
+    private FastField(Field field, FieldAccessor accessor, boolean writable) {
+        this.field = field;
+        this.type = field.getType();
+        this.declaringClass = field.getDeclaringClass();
+        this.isStatic = Modifier.isStatic(field.getModifiers());
+        this.writable = writable;
+        this.accessor = accessor;
+    }
+
+    /**
+     * @param field the field to wrap.
+     * @return a FastField for the given field.
+     * @throws IllegalAccessException if the field isn't accessible,
+     *                                use {@link Field#setAccessible(boolean)}.
+     */
+    public static FastField of(Field field) throws IllegalAccessException {
+        FastField fastField = CACHE.get(field);
+        if (fastField != null && MemberCache.isAccessible(field)) {
+            return fastField;
+        }
+
+        MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+        if (fastField != null) {
+            return fastField;
+        }
+
+        MethodHandle setter;
+        try {
+            setter = MethodHandles.lookup().unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            setter = null; // final, set throws like reflection does.
+        }
+
+        // (Receiver) -> T and (Receiver, T) -> void, static fields ignore the receiver.
+        if (Modifier.isStatic(field.getModifiers())) {
+            getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            setter = setter == null ? null : MethodHandles.dropArguments(setter, 0, Object.class);
+        }
+
+        // Primitives keep their type, so that the typed methods don't box.
+        Class<?> type = field.getType().isPrimitive() ? field.getType() : Object.class;
+        getter = getter.asType(MethodType.methodType(type, Object.class));
+        setter = setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class, type));
+        FieldAccessor accessor;
+        try {
+            accessor = FieldAccessorFactory.create(field, getter, setter);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Couldn't wrap " + field + ".", t);
+        }
+
+        return CACHE.put(field, new FastField(field, accessor, setter != null));
+    }
+
+    /**
+     * Mirrors {@link Field#get(Object)}.
+     *
+     * @throws IllegalAccessException never, but declared by the reflection API.
+     */
+    public Object get(Object obj) throws IllegalArgumentException, IllegalAccessException {
+        checkReceiver(obj);
+        return accessor.get(obj);
+    }
+
+    public boolean getBoolean(Object obj) throws IllegalArgumentException, IllegalAccessException {
+        checkReceiver(obj);
+        return accessor.getBoolean(obj);
+    }
+
+    public byte getByte(Object obj) throws IllegalArgumentException, IllegalAccessException {
+        checkReceiver(obj);
+        return accessor.getByte(obj);
+    }
+
+    public char getChar(Object obj) throws IllegalArgumentException, IllegalAccessException {
+        checkReceiver(obj);
+        return accessor.getChar(obj);
+    }
+
+    public short getShort(Object obj) throws IllegalArgumentException, IllegalAccessException {
+        checkReceiver(obj);
+        return accessor.getShort(obj);
+    }
+
+    public int getInt(Object obj) throws IllegalArgumentException, IllegalAccessException {
+        checkReceiver(obj);
+        return accessor.getInt(obj);
+    }
+
+    public long getLong(Object obj) throws IllegalArgumentException, IllegalAccessException {
+        checkReceiver(obj);
+        return accessor.getLong(obj);
+    }
+
+    public float getFloat(Object obj) throws IllegalArgumentException, IllegalAccessException {
+        checkReceiver(obj);
+        return accessor.getFloat(obj);
+    }
+
+    public double getDouble(Object obj) throws IllegalArgumentException, IllegalAccessException {
+        checkReceiver(obj);
+        return accessor.getDouble(obj);
+    }
+
+    /**
+     * Mirrors {@link Field#set(Object, Object)}.
+     *
+     * @throws IllegalAccessException if the field is final and couldn't be made accessible.
+     * @throws IllegalArgumentException if the value can't be converted to the type of the field.
+     */
+    public void set(Object obj, Object value) throws IllegalArgumentException, IllegalAccessException {
+        if (type.isPrimitive()) {
+            if (value == null || !MemberCache.isWidening(MemberCache.primitive(value.getClass()), type)) {
+                throw new IllegalArgumentException("Can't set " + type.getName() + " field " + field.getName() + " to " + value + ".");
+            }
+        } else if (value != null && !type.isInstance(value)) {
+            throw new IllegalArgumentException("Can't set " + type.getName() + " field " + field.getName() + " to " + value.getClass().getName() + ".");
+        }
+
+        checkSet(obj);
+        if (!type.isPrimitive()) {
+            accessor.set(obj, value);
+        } else if (value instanceof Integer) {
+            accessor.setInt(obj, (Integer) value);
+        } else if (value instanceof Long) {
+            accessor.setLong(obj, (Long) value);
+        } else if (value instanceof Double) {
+            accessor.setDouble(obj, (Double) value);
+        } else if (value instanceof Float) {
+            accessor.setFloat(obj, (Float) value);
+        } else if (value instanceof Boolean) {
+            accessor.setBoolean(obj, (Boolean) value);
+        } else if (value instanceof Byte) {
+            accessor.setByte(obj, (Byte) value);
+        } else if (value instanceof Character) {
+            accessor.setChar(obj, (Character) value);
+        } else {
+            accessor.setShort(obj, (Short) value);
+        }
+    }
+
+    public void setBoolean(Object obj, boolean z) throws IllegalArgumentException, IllegalAccessException {
+        checkSet(obj);
+        accessor.setBoolean(obj, z);
+    }
+
+    public void setByte(Object obj, byte b) throws IllegalArgumentException, IllegalAccessException {
+        checkSet(obj);
+        accessor.setByte(obj, b);
+    }
+
+    public void setChar(Object obj, char c) throws IllegalArgumentException, IllegalAccessException {
+        checkSet(obj);
+        accessor.setChar(obj, c);
+    }
+
+    public void setShort(Object obj, short s) throws IllegalArgumentException, IllegalAccessException {
+        checkSet(obj);
+        accessor.setShort(obj, s);
+    }
+
+    public void setInt(Object obj, int i) throws IllegalArgumentException, IllegalAccessException {
+        checkSet(obj);
+        accessor.setInt(obj, i);
+    }
+
+    public void setLong(Object obj, long l) throws IllegalArgumentException, IllegalAccessException {
+        checkSet(obj);
+        accessor.setLong(obj, l);
+    }
+
+    public void setFloat(Object obj, float f) throws IllegalArgumentException, IllegalAccessException {
+        checkSet(obj);
+        accessor.setFloat(obj, f);
+    }
+
+    public void setDouble(Object obj, double d) throws IllegalArgumentException, IllegalAccessException {
+        checkSet(obj);
+        accessor.setDouble(obj, d);
+    }
+
+    /**
+     * @return the wrapped field.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    @Override
+    public String toString() {
+        return "FastField(" + field + ")";
+    }
+
+    private void checkSet(Object obj) throws IllegalAccessException {
+        if (!writable) {
+            throw new IllegalAccessException("Can't set final field " + field.getName() + ".");
+        }
+
+        checkReceiver(obj);
+    }
+
+    private void checkReceiver(Object obj) {
+        if (!isStatic && !declaringClass.isInstance(obj)) {
+            if (obj == null) {
+                throw new NullPointerException();
+            }
+
+            throw new IllegalArgumentException("Object is not an instance of declaring class " + declaringClass.getName() + ".");
+        }
+    }
+
+}
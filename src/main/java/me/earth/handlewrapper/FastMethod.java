@@ -0,0 +1,123 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * A drop-in replacement for {@link Method#invoke(Object, Object...)}
+ * backed by a {@link HandleWrapper}. Replace
+ * <blockquote><pre>{@code
+ *      method.invoke(obj, args);
+ * }</pre></blockquote>
+ * with
+ * <blockquote><pre>{@code
+ *      FastMethod.of(method).invoke(obj, args);
+ * }</pre></blockquote>
+ * and the call goes through a <b>static final</b> MethodHandle, while
+ * the same exceptions as before are thrown. FastMethods are cached per
+ * Method, but {@link FastMethod#of(Method)} still needs a lookup, hot
+ * call sites should store the FastMethod.
+ * <p>
+ * <p>Like reflection, arguments are checked before the call, an argument
+ * of the wrong type or a primitive that can't be widened to the parameter
+ * type causes an IllegalArgumentException.
+ */
+public final class FastMethod {
+    private static final MemberCache<Method, FastMethod> CACHE = new MemberCache<>();
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Method method;
+    private final HandleWrapper wrapper;
+    private final Class<?> declaringClass;
+    private final boolean isStatic;
+    private final Class<?>[] parameterTypes;
+
+    private FastMethod(Method method, HandleWrapper wrapper) {
+        this.method = method;
+        this.wrapper = wrapper;
+        this.declaringClass = method.getDeclaringClass();
+        this.isStatic = Modifier.isStatic(method.getModifiers());
+        this.parameterTypes = method.getParameterTypes();
+    }
+
+    /**
+     * @param method the method to wrap.
+     * @return a FastMethod for the given method.
+     * @throws IllegalAccessException if the method isn't accessible,
+     *                                use {@link Method#setAccessible(boolean)}.
+     */
+    public static FastMethod of(Method method) throws IllegalAccessException {
+        FastMethod fastMethod = CACHE.get(method);
+        if (fastMethod != null && MemberCache.isAccessible(method)) {
+            return fastMethod;
+        }
+
+        // (Receiver, Object[]) -> Object, static methods ignore the receiver.
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (fastMethod != null) {
+            return fastMethod;
+        }
+
+        handle = handle.asFixedArity().asSpreader(Object[].class, method.getParameterTypes().length);
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+
+        handle = handle.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        return CACHE.put(method, new FastMethod(method, MemberCache.wrap(handle, method, Object.class, Object.class, Object[].class)));
+    }
+
+    /**
+     * Mirrors {@link Method#invoke(Object, Object...)}.
+     *
+     * @param obj the object to call the method on, ignored for static methods.
+     * @param args the arguments.
+     * @return the result of the method, boxed if it's a primitive,
+     *         <tt>null</tt> for void methods.
+     * @throws IllegalAccessException never, but declared by the reflection API.
+     * @throws IllegalArgumentException if the object isn't an instance of the declaring
+     *                                  class or the amount or types of the arguments are wrong.
+     * @throws InvocationTargetException if the method throws.
+     */
+    public Object invoke(Object obj, Object... args) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+        if (args == null) {
+            args = NO_ARGS;
+        }
+
+        if (!isStatic && !declaringClass.isInstance(obj)) {
+            if (obj == null) {
+                throw new NullPointerException();
+            }
+
+            throw new IllegalArgumentException("Object is not an instance of declaring class " + declaringClass.getName() + ".");
+        } else if (args.length != parameterTypes.length) {
+            throw new IllegalArgumentException("Wrong number of arguments: " + args.length + ", expected: " + parameterTypes.length + ".");
+        }
+
+        MemberCache.checkArguments(parameterTypes, args);
+        try {
+            return wrapper.invoke(obj, args);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * @return the wrapped method.
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public String toString() {
+        return "FastMethod(" + method + ")";
+    }
+
+}
@@ -0,0 +1,172 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.FieldAccessor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.F2D;
+import static org.objectweb.asm.Opcodes.I2D;
+import static org.objectweb.asm.Opcodes.I2F;
+import static org.objectweb.asm.Opcodes.I2L;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.L2D;
+import static org.objectweb.asm.Opcodes.L2F;
+import static org.objectweb.asm.Opcodes.RETURN;
+
+/**
+ * Generates the {@link FieldAccessor}s for {@link FastField}. For an
+ * int field the result looks roughly like this:
+ *
+ * <blockquote><pre>{@code
+ * public class SomeClass_fieldID extends FieldAccessor {
+ *     private static final MethodHandle HANDLE_0; // (Object) -> int
+ *     private static final MethodHandle HANDLE_1; // (Object, int) -> void
+ *
+ *     public int getInt(Object obj) {
+ *         return HANDLE_0.invokeExact(obj);
+ *     }
+ *
+ *     public long getLong(Object obj) {
+ *         return (long) HANDLE_0.invokeExact(obj);
+ *     }
+ *
+ *     public void setShort(Object obj, short s) {
+ *         HANDLE_1.invokeExact(obj, (int) s);
+ *     }
+ *
+ *     ... // get, set, getFloat, getDouble, setByte, setChar, setInt
+ * }
+ * }</pre></blockquote>
+ */
+final class FieldAccessorFactory {
+    private static final Class<?>[] PRIMITIVES = {boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class};
+    private static final String HANDLE = "java/lang/invoke/MethodHandle";
+
+    private FieldAccessorFactory() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param field the field.
+     * @param getter the getter, adapted to <tt>(Object)T</tt>, where T is the
+     *               type of the field if it's primitive and Object otherwise.
+     * @param setter the setter, adapted to <tt>(Object, T)void</tt>,
+     *               or <tt>null</tt> if the field can't be set.
+     * @return a FieldAccessor for the field.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    static FieldAccessor create(Field field, MethodHandle getter, MethodHandle setter) throws Throwable {
+        MethodHandle[] handles = setter == null ? new MethodHandle[]{getter} : new MethodHandle[]{getter, setter};
+        int[] ids = Util.ids(handles.length);
+        String name = Util.className(field.getDeclaringClass(), "field", ids[0]);
+        String description = name.replace(".", "/");
+        String superName = Type.getInternalName(FieldAccessor.class);
+        Class<?> type = getter.type().returnType();
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, superName, ids);
+        Util.constructor(cw, superName, "(Ljava/lang/reflect/Field;)V");
+        buildGetter(cw, description, "get", getter.type(), Object.class);
+        if (setter != null) {
+            buildSetter(cw, description, "set", setter.type(), Object.class);
+        }
+
+        if (type.isPrimitive()) {
+            for (Class<?> primitive : PRIMITIVES) {
+                if (primitive == type || Util.widens(type, primitive)) {
+                    buildGetter(cw, description, "get" + capitalize(primitive), getter.type(), primitive);
+                }
+
+                if (setter != null && (primitive == type || Util.widens(primitive, type))) {
+                    buildSetter(cw, description, "set" + capitalize(primitive), setter.type(), primitive);
+                }
+            }
+        }
+
+        cw.visitEnd();
+        return (FieldAccessor) Util.define(cw, name, field.getDeclaringClass().getClassLoader(), ids, handles)
+                                   .getConstructor(Field.class)
+                                   .newInstance(field);
+    }
+
+    // e.g. public long getLong(Object obj), boxes for Object.
+    private static void buildGetter(ClassWriter cw, String description, String name, MethodType handleType, Class<?> as) {
+        Type from = Type.getType(handleType.returnType());
+        Type to = Type.getType(as);
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, name, "(Ljava/lang/Object;)" + to.getDescriptor(), null, null);
+        mv.visitCode();
+        Util.getHandle(mv, description, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, HANDLE, "invokeExact", handleType.toMethodDescriptorString(), false);
+        if (as == Object.class) {
+            Util.box(from, mv);
+            mv.visitInsn(ARETURN);
+        } else {
+            widen(mv, from, to);
+            Util.makeReturn(mv, to);
+        }
+
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    // e.g. public void setShort(Object obj, short s), unboxes for Object.
+    private static void buildSetter(ClassWriter cw, String description, String name, MethodType handleType, Class<?> with) {
+        Type to = Type.getType(handleType.parameterType(1));
+        Type from = Type.getType(with);
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, name, "(Ljava/lang/Object;" + from.getDescriptor() + ")V", null, null);
+        mv.visitCode();
+        Util.getHandle(mv, description, 1);
+        mv.visitVarInsn(ALOAD, 1);
+        Util.loadParam(mv, from, 2);
+        if (with == Object.class) {
+            Util.unbox(to, mv);
+        } else {
+            widen(mv, from, to);
+        }
+
+        mv.visitMethodInsn(INVOKEVIRTUAL, HANDLE, "invokeExact", handleType.toMethodDescriptorString(), false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Widens the primitive on top of the stack, booleans, bytes,
+     * chars and shorts are already ints in bytecode.
+     */
+    private static void widen(MethodVisitor mv, Type from, Type to) {
+        int sort = from.getSort() < Type.FLOAT ? Type.INT : from.getSort();
+        if (sort == to.getSort() || to.getSort() < Type.FLOAT) {
+            return;
+        }
+
+        switch (sort) {
+            case Type.INT:
+                mv.visitInsn(to.getSort() == Type.LONG ? I2L : to.getSort() == Type.FLOAT ? I2F : I2D);
+                break;
+            case Type.LONG:
+                mv.visitInsn(to.getSort() == Type.FLOAT ? L2F : L2D);
+                break;
+            case Type.FLOAT:
+                mv.visitInsn(F2D);
+                break;
+            default:
+                throw new IllegalArgumentException("Can't widen " + from + " to " + to + ".");
+        }
+    }
+
+    private static String capitalize(Class<?> primitive) {
+        String name = primitive.getName();
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+}
@@ -0,0 +1,241 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.AbstractFlyweight;
+import me.earth.handlewrapper.wrappers.Flyweight;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.IADD;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_6;
+
+/**
+ * Implements interfaces whose getters and setters are annotated with
+ * {@link Offset} as {@link Flyweight}s over a {@link ByteBuffer}, e.g.
+ * a {@link java.nio.MappedByteBuffer} of a file with fixed size records.
+ * Reading a record creates no objects and deserializes nothing:
+ *
+ * <blockquote><pre>{@code
+ * public interface Particle extends Flyweight {
+ *     @Offset(0) int getId();
+ *     @Offset(0) void setId(int id);
+ *     @Offset(4) double getX();
+ * }
+ *
+ * public class Particle_flyweightID extends AbstractFlyweight implements Particle {
+ *     public Particle_flyweightID() {
+ *         super(12); // the end of the last value
+ *     }
+ *
+ *     public int getId() {
+ *         return buffer.getInt(base + 0);
+ *     }
+ *
+ *     public void setId(int id) {
+ *         buffer.putInt(base + 0, id);
+ *     }
+ *
+ *     public double getX() {
+ *         return buffer.getDouble(base + 4);
+ *     }
+ * }
+ * }</pre></blockquote>
+ *
+ * Booleans are stored as a byte. Values may overlap, they aren't aligned.
+ */
+public class FlyweightFactory {
+    private static final String BUFFER = Type.getInternalName(ByteBuffer.class);
+
+    private FlyweightFactory() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Creates a Flyweight and wraps the buffer at base 0.
+     *
+     * @see FlyweightFactory#create(Class)
+     */
+    public static <T> T create(Class<T> around, ByteBuffer buffer) throws Throwable {
+        T flyweight = create(around);
+        ((Flyweight) flyweight).wrap(buffer, 0);
+        return flyweight;
+    }
+
+    /**
+     * Creates a Flyweight whose records are as large as the end of the last value.
+     *
+     * @see FlyweightFactory#create(Class, int)
+     */
+    public static <T> T create(Class<T> around) throws Throwable {
+        return create(around, -1);
+    }
+
+    /**
+     * Creates a Flyweight implementing the given interface. All abstract
+     * methods of the interface, except those of {@link Flyweight}, need
+     * to be annotated with {@link Offset}. The returned object implements
+     * Flyweight and needs to be wrapped around a buffer before it's used.
+     *
+     * @param around the public interface to implement.
+     * @param size the size of a record in bytes, can be larger than
+     *             needed for padding, -1 to compute it.
+     * @param <T> the type of the interface.
+     * @return an unwrapped Flyweight.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T create(Class<T> around, int size) throws Throwable {
+        if (!around.isInterface() || !Modifier.isPublic(around.getModifiers())) {
+            throw new IllegalArgumentException("Class: " + around.getName() + " is not a public interface.");
+        }
+
+        Map<String, Method> methods = new LinkedHashMap<>();
+        int end = 0;
+        for (Method method : around.getMethods()) {
+            String key = method.getName() + Type.getMethodDescriptor(method);
+            if (Modifier.isStatic(method.getModifiers()) || isFlyweightMethod(method)) {
+                continue;
+            }
+
+            Offset offset = method.getAnnotation(Offset.class);
+            if (offset == null) {
+                if (!method.isDefault()) {
+                    throw new IllegalArgumentException("Method: " + method.getName() + " is not annotated with @Offset.");
+                }
+
+                continue;
+            }
+
+            Class<?> type = valueType(method);
+            if (offset.value() < 0) {
+                throw new IllegalArgumentException("Method: " + method.getName() + " has a negative offset.");
+            }
+
+            end = Math.max(end, offset.value() + Util.sizeOf(type));
+            methods.put(key, method);
+        }
+
+        if (size < 0) {
+            size = Math.max(end, 1);
+        } else if (size < end) {
+            throw new IllegalArgumentException("Size: " + size + " is smaller than the end of the last value: " + end + ".");
+        }
+
+        String name = Util.className(around, "flyweight", Handles.nextId());
+        String description = name.replace(".", "/");
+        String superName = Type.getInternalName(AbstractFlyweight.class);
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_6, ACC_PUBLIC | ACC_SUPER, description, null, superName, new String[]{Type.getInternalName(around)});
+        buildConstructor(cw, superName, size);
+        for (Method method : methods.values()) {
+            buildAccessor(cw, superName, method);
+        }
+
+        cw.visitEnd();
+        return (T) Util.instantiate(cw, name, around.getClassLoader(), new int[0]);
+    }
+
+    private static boolean isFlyweightMethod(Method method) {
+        try {
+            Flyweight.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the type of the value the given getter or setter accesses.
+     */
+    private static Class<?> valueType(Method method) {
+        Class<?>[] pTypes = method.getParameterTypes();
+        if (pTypes.length == 0 && method.getReturnType().isPrimitive() && method.getReturnType() != void.class) {
+            return method.getReturnType();
+        } else if (pTypes.length == 1 && pTypes[0].isPrimitive() && method.getReturnType() == void.class) {
+            return pTypes[0];
+        }
+
+        throw new IllegalArgumentException("Method: " + method.getName() + " is neither a primitive getter nor a setter.");
+    }
+
+    private static void buildConstructor(ClassWriter cw, String superName, int size) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitLdcInsn(size);
+        mv.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "(I)V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void buildAccessor(ClassWriter cw, String superName, Method method) {
+        Class<?> type = valueType(method);
+        boolean getter = method.getParameterTypes().length == 0;
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, method.getName(), Type.getMethodDescriptor(method), null, null);
+        mv.visitCode();
+        // buffer, base + offset
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, superName, "buffer", Type.getDescriptor(ByteBuffer.class));
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, superName, "base", "I");
+        mv.visitLdcInsn(method.getAnnotation(Offset.class).value());
+        mv.visitInsn(IADD);
+
+        String suffix = suffix(type);
+        String descriptor = type == boolean.class ? "B" : Type.getDescriptor(type);
+        if (getter) {
+            mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "get" + suffix, "(I)" + descriptor, false);
+            if (type == boolean.class) {
+                // any byte but 0 is true
+                Label isFalse = new Label();
+                mv.visitJumpInsn(IFEQ, isFalse);
+                mv.visitInsn(ICONST_1);
+                mv.visitInsn(IRETURN);
+                mv.visitLabel(isFalse);
+                mv.visitInsn(ICONST_0);
+                mv.visitInsn(IRETURN);
+            } else {
+                Util.makeReturn(mv, Type.getType(type));
+            }
+        } else {
+            Util.loadParam(mv, Type.getType(type), 1);
+            mv.visitMethodInsn(INVOKEVIRTUAL, BUFFER, "put" + suffix, "(I" + descriptor + ")L" + BUFFER + ";", false);
+            mv.visitInsn(POP);
+            mv.visitInsn(RETURN);
+        }
+
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static String suffix(Class<?> type) {
+        if (type == boolean.class || type == byte.class) {
+            return "";
+        }
+
+        String name = type.getName();
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+}
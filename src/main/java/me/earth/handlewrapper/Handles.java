@@ -3,6 +3,7 @@ package me.earth.handlewrapper;
 import java.lang.invoke.MethodHandle;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * I didn't find a simple way to hide this properly,
@@ -16,15 +17,22 @@ import java.util.concurrent.ConcurrentHashMap;
  * }
  * }</pre></blockquote>
  *
- * The id comes from an LDC instruction.
+ * The id comes from an LDC instruction. Classes from the
+ * {@link WrapperCache} can't contain an id, they use
+ * <tt>Handles.getHandle(OwnClass.class)</tt> instead.
  */
 public class Handles {
     private static final Map<Integer, MethodHandle> HANDLES = new ConcurrentHashMap<>();
+    private static final AtomicInteger ID = new AtomicInteger();
 
     private Handles() {
         throw new AssertionError();
     }
 
+    static int nextId() {
+        return ID.incrementAndGet();
+    }
+
     static void add(int id, MethodHandle handle) {
         if (HANDLES.containsKey(id)) {
             throw new IllegalStateException("ID " + id + " already exists.");
@@ -48,6 +56,22 @@ public class Handles {
         return handle;
     }
 
+    /**
+     * Deprecated because dangerous, not because not used:
+     * This method should never be called by you
+     * and will most likely throw an unchecked Exception.
+     */
+    @Deprecated
+    public static MethodHandle getHandle(Class<?> clazz) {
+        ClassLoader loader = clazz.getClassLoader();
+        MethodHandle handle = loader instanceof WrapperLoader ? ((WrapperLoader) loader).takeHandle() : null;
+        if (handle == null) {
+            throw new IllegalStateException("Class: " + clazz.getName() + " MethodHandle didn't exist");
+        }
+
+        return handle;
+    }
+
     static void del(int id) {
         HANDLES.remove(id);
     }
@@ -0,0 +1,134 @@
+package me.earth.handlewrapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.util.List;
+
+/**
+ * Advice that is fused into the MethodHandle of a wrapper with
+ * {@link MethodHandles} combinators, instead of being stacked around
+ * the wrapper as decorator objects. The whole chain then sits behind
+ * one <b>static final</b> field and is inlined as one unit:
+ *
+ * <blockquote><pre>{@code
+ *      public static void check(Player player, int amount) { ... } // before
+ *      public static int trace(MethodHandle proceed, Player player, int amount) throws Throwable {
+ *          long time = System.nanoTime();
+ *          try {
+ *              return (int) proceed.invokeExact(player, amount);
+ *          } finally {
+ *              log(System.nanoTime() - time);
+ *          }
+ *      }
+ *
+ *      HandleWrapper wrapper = WrapperFactory.wrapIntercepted(handle, method,
+ *              Arrays.asList(Interceptor.before(CHECK), Interceptor.around(TRACE)));
+ * }</pre></blockquote>
+ *
+ * The types of the advice handles are adapted with
+ * {@link MethodHandle#asType(MethodType)}. <tt>R</tt> is the return type
+ * and <tt>A...</tt> are the parameter types of the intercepted handle,
+ * including the target for instance methods.
+ */
+public final class Interceptor {
+    private final Kind kind;
+    private final MethodHandle handle;
+    private final Class<? extends Throwable> exceptionType;
+
+    private Interceptor(Kind kind, MethodHandle handle, Class<? extends Throwable> exceptionType) {
+        this.kind = kind;
+        this.handle = handle;
+        this.exceptionType = exceptionType;
+    }
+
+    /**
+     * @param handle <tt>(A...)void</tt>, called with the arguments before
+     *               the rest of the chain. It can throw to abort the call.
+     */
+    public static Interceptor before(MethodHandle handle) {
+        return new Interceptor(Kind.BEFORE, handle, null);
+    }
+
+    /**
+     * @param handle <tt>(R)R</tt>, or <tt>()void</tt> if R is void, called
+     *               with the result of the rest of the chain, returns the result.
+     */
+    public static Interceptor afterReturning(MethodHandle handle) {
+        return new Interceptor(Kind.AFTER_RETURNING, handle, null);
+    }
+
+    /**
+     * @param exceptionType the type of Throwable to catch.
+     * @param handle <tt>(T, A...)R</tt>, called if the rest of the chain throws
+     *               a T, can rethrow it or return a result instead.
+     */
+    public static Interceptor afterThrowing(Class<? extends Throwable> exceptionType, MethodHandle handle) {
+        return new Interceptor(Kind.AFTER_THROWING, handle, exceptionType);
+    }
+
+    /**
+     * @param handle <tt>(MethodHandle, A...)R</tt>, called instead of the rest
+     *               of the chain, which it gets as the first argument and can
+     *               call with <tt>invokeExact</tt>, any amount of times.
+     */
+    public static Interceptor around(MethodHandle handle) {
+        return new Interceptor(Kind.AROUND, handle, null);
+    }
+
+    /**
+     * Fuses the interceptors into the given handle. The first interceptor is
+     * the outermost one, e.g. a before advice runs before an around advice
+     * that follows it, and an afterThrowing advice catches what the advice
+     * following it throws.
+     *
+     * @param target the handle to intercept.
+     * @param interceptors the interceptors, outermost first.
+     * @return a handle of the same type as the target.
+     * @throws IllegalArgumentException if an advice can't be adapted to the target.
+     */
+    public static MethodHandle chain(MethodHandle target, List<Interceptor> interceptors) {
+        MethodHandle result = target;
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            result = interceptors.get(i).apply(result);
+        }
+
+        return result;
+    }
+
+    private MethodHandle apply(MethodHandle target) {
+        MethodType type = target.type();
+        try {
+            switch (kind) {
+                case BEFORE:
+                    return MethodHandles.foldArguments(target, handle.asType(type.changeReturnType(void.class)));
+                case AFTER_RETURNING:
+                    MethodType filter = type.returnType() == void.class
+                            ? MethodType.methodType(void.class)
+                            : MethodType.methodType(type.returnType(), type.returnType());
+                    return MethodHandles.filterReturnValue(target, handle.asType(filter));
+                case AFTER_THROWING:
+                    return MethodHandles.catchException(target, exceptionType, handle.asType(type.insertParameterTypes(0, exceptionType)));
+                default:
+                    MethodHandle around = handle.asType(type.insertParameterTypes(0, MethodHandle.class));
+                    return MethodHandles.insertArguments(around, 0, target);
+            }
+        } catch (WrongMethodTypeException e) {
+            throw new IllegalArgumentException("Couldn't adapt " + kind + " advice " + handle.type() + " to " + type + ".", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Interceptor(" + kind + ", " + handle + ")";
+    }
+
+    private enum Kind {
+        BEFORE,
+        AFTER_RETURNING,
+        AFTER_THROWING,
+        AROUND
+    }
+
+}
@@ -0,0 +1,118 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Member;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches a value per {@link Member}. The values are stored with a
+ * {@link ClassValue} of the declaring class, so they don't prevent
+ * the class from being unloaded.
+ *
+ * @param <M> the type of member.
+ * @param <V> the type of value.
+ */
+final class MemberCache<M extends Member, V> {
+    private final ClassValue<Map<M, V>> values = new ClassValue<Map<M, V>>() {
+        @Override
+        protected Map<M, V> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    public V get(M member) {
+        return values.get(member.getDeclaringClass()).get(member);
+    }
+
+    /**
+     * @return the value that is in the cache after putting,
+     *         the given one or one put by another thread.
+     */
+    public V put(M member, V value) {
+        V previous = values.get(member.getDeclaringClass()).putIfAbsent(member, value);
+        return previous == null ? value : previous;
+    }
+
+    /**
+     * Members are equal regardless of their accessible flag, a cached
+     * value may only be returned if the given member could be accessed.
+     *
+     * @return <tt>true</tt> if the member can be unreflected by anyone.
+     */
+    @SuppressWarnings("deprecation")
+    public static boolean isAccessible(Member member) {
+        return ((AccessibleObject) member).isAccessible()
+            || Modifier.isPublic(member.getModifiers()) && Modifier.isPublic(member.getDeclaringClass().getModifiers());
+    }
+
+    /**
+     * Wraps the given handle, which takes and returns only Objects and Object[]s.
+     */
+    public static HandleWrapper wrap(MethodHandle handle, Member member, Class<?> rType, Class<?>...pTypes) {
+        try {
+            return WrapperFactory.wrap(handle, member.getDeclaringClass(), true, rType, pTypes);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Couldn't wrap " + member + ".", t);
+        }
+    }
+
+    /**
+     * Checks the arguments like {@link java.lang.reflect.Method#invoke(Object, Object...)}
+     * does: primitives need a box that can be widened to the parameter type,
+     * references need to be <tt>null</tt> or an instance of the parameter type.
+     *
+     * @throws IllegalArgumentException if an argument doesn't match.
+     */
+    public static void checkArguments(Class<?>[] pTypes, Object[] args) {
+        for (int i = 0; i < pTypes.length; i++) {
+            Class<?> pType = pTypes[i];
+            Object arg = args[i];
+            if (pType.isPrimitive()
+                    ? arg == null || !isWidening(primitive(arg.getClass()), pType)
+                    : arg != null && !pType.isInstance(arg)) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if the primitive from can be converted to
+     *         the primitive to by an identity or widening conversion.
+     */
+    public static boolean isWidening(Class<?> from, Class<?> to) {
+        return from == to ? from != null && from.isPrimitive() : Util.widens(from, to);
+    }
+
+    /**
+     * @return the primitive type for the given box, or <tt>null</tt>.
+     */
+    public static Class<?> primitive(Class<?> box) {
+        if (box == Integer.class) {
+            return int.class;
+        } else if (box == Long.class) {
+            return long.class;
+        } else if (box == Double.class) {
+            return double.class;
+        } else if (box == Float.class) {
+            return float.class;
+        } else if (box == Boolean.class) {
+            return boolean.class;
+        } else if (box == Byte.class) {
+            return byte.class;
+        } else if (box == Character.class) {
+            return char.class;
+        } else if (box == Short.class) {
+            return short.class;
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,304 @@
+package me.earth.handlewrapper;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache for a {@link MemoizingWrapper}. Keys are spread over
+ * segments by their hash, each segment has its own lock for writes, so
+ * threads only contend if their keys land in the same segment. Reads
+ * don't lock, a sample of them is recorded in a small buffer which is
+ * replayed on an access ordered {@link LinkedHashMap} once it's full or
+ * on the next write, so the order is approximate.
+ * <p>
+ * <p>When a segment is full, LRU evicts the least recently used entry. TinyLFU additionally
+ * keeps a small frequency sketch and only evicts the least recently used
+ * entry if the new key has been seen more often, so a scan over many
+ * keys that are used once doesn't flush the frequently used ones.
+ */
+final class MemoCache {
+    private static final Object NULL = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Segment[] segments;
+    private final long expireAfterWrite;
+
+    /**
+     * @param maximumSize the maximum amount of entries, roughly,
+     *                    since every segment gets an equal share.
+     * @param eviction the policy used when a segment is full.
+     * @param expireAfterWrite nanoseconds after which entries expire, 0 for never.
+     */
+    MemoCache(int maximumSize, MemoizingWrapper.Eviction eviction, long expireAfterWrite) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size: " + maximumSize + " needs to be positive.");
+        } else if (expireAfterWrite < 0) {
+            throw new IllegalArgumentException("Expiry: " + expireAfterWrite + " can't be negative.");
+        }
+
+        // enough segments for the cores, but every segment should hold a few entries.
+        int amount = Integer.highestOneBit(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, maximumSize / 8)));
+        this.segments = new Segment[amount];
+        for (int i = 0; i < amount; i++) {
+            int capacity = maximumSize / amount + (i < maximumSize % amount ? 1 : 0);
+            segments[i] = new Segment(capacity, eviction == MemoizingWrapper.Eviction.TINY_LFU ? new FrequencySketch(capacity) : null);
+        }
+
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    /**
+     * @return the cached value, <tt>null</tt> if it isn't cached. Null values
+     *         are returned as {@link MemoCache#NULL}, see {@link MemoCache#unwrap(Object)}.
+     */
+    Object get(Object key, int hash) {
+        Object value = segment(hash).get(key, expireAfterWrite == 0 ? 0 : System.nanoTime());
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        return value;
+    }
+
+    void put(Object key, int hash, Object value) {
+        long expiresAt = expireAfterWrite == 0 ? 0 : System.nanoTime() + expireAfterWrite;
+        if (segment(hash).put(key, hash, value == null ? NULL : value, expiresAt)) {
+            evictions.increment();
+        }
+    }
+
+    static Object unwrap(Object value) {
+        return value == NULL ? null : value;
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    private Segment segment(int hash) {
+        // spread, the low bits are used by the sketch.
+        return segments[(hash ^ (hash >>> 16)) * 0x9E3779B9 >>> 16 & (segments.length - 1)];
+    }
+
+    private static final class Segment {
+        private static final int READ_BUFFER = 16;
+        /** Only every SAMPLEth read is recorded, replaying them is what makes reads expensive. */
+        private static final int SAMPLE = 4;
+
+        private final ConcurrentHashMap<Object, Entry> data = new ConcurrentHashMap<>();
+        private final LinkedHashMap<Object, Entry> order = new LinkedHashMap<>(16, 0.75f, true);
+        private final AtomicReferenceArray<Entry> reads = new AtomicReferenceArray<>(READ_BUFFER);
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        private final FrequencySketch sketch;
+        private int readIndex; // racy on purpose, losing a read only makes the order less exact
+
+        private Segment(int capacity, FrequencySketch sketch) {
+            this.capacity = Math.max(capacity, 1);
+            this.sketch = sketch;
+        }
+
+        private Object get(Object key, long now) {
+            Entry entry = data.get(key);
+            if (entry == null || entry.expiresAt != 0 && now - entry.expiresAt >= 0) {
+                return null;
+            }
+
+            int read = readIndex++;
+            if ((read & (SAMPLE - 1)) != 0) {
+                return entry.value;
+            }
+
+            int index = (read / SAMPLE) & (READ_BUFFER - 1);
+            reads.lazySet(index, entry);
+            if (index == READ_BUFFER - 1 && lock.tryLock()) {
+                try {
+                    drain();
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            return entry.value;
+        }
+
+        /**
+         * @return <tt>true</tt> if an entry has been evicted.
+         */
+        private boolean put(Object key, int hash, Object value, long expiresAt) {
+            lock.lock();
+            try {
+                drain();
+                if (sketch != null) {
+                    sketch.increment(hash); // the miss
+                }
+
+                Entry entry = new Entry(key, value, hash, expiresAt);
+                if (order.size() < capacity || order.containsKey(key)) {
+                    order.put(key, entry);
+                    data.put(key, entry);
+                    return false;
+                }
+
+                Iterator<Entry> it = order.values().iterator();
+                Entry victim = it.next();
+                if (sketch != null && sketch.frequency(hash) <= sketch.frequency(victim.hash)) {
+                    return false; // not admitted, the victim is used more often.
+                }
+
+                it.remove();
+                data.remove(victim.key);
+                order.put(key, entry);
+                data.put(key, entry);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Replays the buffered reads on the access order, needs the lock.
+         */
+        private void drain() {
+            for (int i = 0; i < READ_BUFFER; i++) {
+                Entry entry = reads.get(i);
+                if (entry != null) {
+                    reads.lazySet(i, null);
+                    if (sketch != null) {
+                        sketch.increment(entry.hash);
+                    }
+
+                    order.get(entry.key); // moves it to the end, if it's still cached
+                }
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                for (int i = 0; i < READ_BUFFER; i++) {
+                    reads.set(i, null);
+                }
+
+                order.clear();
+                data.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            return data.size();
+        }
+    }
+
+    private static final class Entry {
+        private final Object key;
+        private final Object value;
+        private final int hash;
+        private final long expiresAt;
+
+        private Entry(Object key, Object value, int hash, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A count-min sketch with four 4-bit counters per key, packed into longs.
+     * All counters are halved after enough increments, so old popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x97CB3127, 0xB3ABB6F3, 0xA8E1CE6F, 0x7ED558CD};
+
+        private final long[] table;
+        private final int resetAfter;
+        private int increments;
+
+        private FrequencySketch(int capacity) {
+            // 16 counters per long, at least one long per entry.
+            this.table = new long[Math.max(8, Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1))];
+            this.resetAfter = Math.max(capacity, 1) * 10;
+        }
+
+        private void increment(int hash) {
+            boolean added = false;
+            for (int seed : SEEDS) {
+                added |= incrementAt(index(hash, seed));
+            }
+
+            if (added && ++increments >= resetAfter) {
+                reset();
+            }
+        }
+
+        private int frequency(int hash) {
+            int frequency = Integer.MAX_VALUE;
+            for (int seed : SEEDS) {
+                int index = index(hash, seed);
+                frequency = Math.min(frequency, (int) (table[index >>> 4] >>> ((index & 15) << 2)) & 0xF);
+            }
+
+            return frequency;
+        }
+
+        private int index(int hash, int seed) {
+            int h = (hash + seed) * seed;
+            h ^= h >>> 17;
+            return h & (table.length * 16 - 1);
+        }
+
+        private boolean incrementAt(int index) {
+            int shift = (index & 15) << 2;
+            long counter = (table[index >>> 4] >>> shift) & 0xF;
+            if (counter == 15) {
+                return false;
+            }
+
+            table[index >>> 4] += 1L << shift;
+            return true;
+        }
+
+        private void reset() {
+            increments = 0;
+            for (int i = 0; i < table.length; i++) {
+                // halve all 16 counters at once
+                table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            }
+        }
+    }
+
+}
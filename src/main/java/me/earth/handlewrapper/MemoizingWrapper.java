@@ -0,0 +1,164 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.ArgBuffer;
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link HandleWrapper} that remembers the results of a pure member,
+ * so that calling it again with equal arguments doesn't call the member.
+ * Results are stored in a bounded, lock striped cache, concurrent calls
+ * only contend if their arguments land in the same stripe.
+ * <p>
+ * <p>A single argument is its own key, an int or long argument is
+ * already boxed by the varargs call, so looking up a static member with
+ * one argument allocates nothing. Multiple arguments, which includes the
+ * receiver of an instance member, need a key object per call. They are
+ * compared with {@link Arrays#deepEquals(Object[], Object[])} and only
+ * copied when a result is stored. <tt>null</tt> results are
+ * cached too, Throwables are not. Two threads missing the same key at
+ * the same time may both call the member.
+ *
+ * @see WrapperFactory#wrapMemoized(java.lang.invoke.MethodHandle, Class, boolean, Class, int, long, TimeUnit, Eviction, Class[])
+ */
+public final class MemoizingWrapper implements HandleWrapper {
+    private static final Object NO_ARGS = new Object();
+    private static final Object NULL = new Object();
+
+    private final HandleWrapper wrapper;
+    private final MethodType type;
+    private final MemoCache cache;
+
+    MemoizingWrapper(HandleWrapper wrapper, MethodType type, int maximumSize, long expireAfterWrite, TimeUnit unit, Eviction eviction) {
+        this.wrapper = wrapper;
+        this.type = type;
+        this.cache = new MemoCache(maximumSize, eviction, unit.toNanos(expireAfterWrite));
+    }
+
+    @Override
+    public Object invoke(Object...args) throws Throwable {
+        Object key = key(args);
+        int hash = key.hashCode();
+        Object value = cache.get(key, hash);
+        if (value != null) {
+            return MemoCache.unwrap(value);
+        }
+
+        value = wrapper.invoke(args);
+        cache.put(store(key, args), hash, value);
+        return value;
+    }
+
+    @Override
+    public Object invokeExact(Object...args) throws Throwable {
+        Object key = key(args);
+        int hash = key.hashCode();
+        Object value = cache.get(key, hash);
+        if (value != null) {
+            return MemoCache.unwrap(value);
+        }
+
+        value = wrapper.invokeExact(args);
+        cache.put(store(key, args), hash, value);
+        return value;
+    }
+
+    /**
+     * Boxes the arguments to look them up, but checks them and stores
+     * the result like the wrapped generated class does.
+     */
+    @Override
+    public void invokeBuffer(ArgBuffer args) throws Throwable {
+        args.setResult(type.returnType(), invoke(args.toArray(type)));
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * @return the amount of cached results.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return how often a call has been answered by the cache.
+     */
+    public long getHits() {
+        return cache.hits();
+    }
+
+    /**
+     * @return how often a call has not been answered by the cache.
+     */
+    public long getMisses() {
+        return cache.misses();
+    }
+
+    /**
+     * @return how many results have been evicted to make room for others.
+     */
+    public long getEvictions() {
+        return cache.evictions();
+    }
+
+    private static Object key(Object[] args) {
+        if (args == null || args.length == 0) {
+            return NO_ARGS;
+        } else if (args.length == 1 && (args[0] == null || !args[0].getClass().isArray())) {
+            return args[0] == null ? NULL : args[0];
+        }
+
+        return new CompositeKey(args);
+    }
+
+    /**
+     * @return a key that can't be changed by the caller anymore.
+     */
+    private static Object store(Object key, Object[] args) {
+        return key instanceof CompositeKey ? new CompositeKey(args.clone()) : key;
+    }
+
+    /**
+     * The policy deciding which result to remove when the cache is full.
+     */
+    public enum Eviction {
+        /** Removes the least recently used result. */
+        LRU,
+        /**
+         * Removes the least recently used result, but only if the new result
+         * has been requested more often, so one-off calls don't flush
+         * results that are used all the time.
+         */
+        TINY_LFU
+    }
+
+    private static final class CompositeKey {
+        private final Object[] args;
+        private final int hash;
+
+        private CompositeKey(Object[] args) {
+            this.args = args;
+            this.hash = Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || o instanceof CompositeKey && ((CompositeKey) o).hash == hash && Arrays.deepEquals(args, ((CompositeKey) o).args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
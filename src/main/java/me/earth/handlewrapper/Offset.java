@@ -0,0 +1,21 @@
+package me.earth.handlewrapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a getter or setter of an interface implemented by the
+ * {@link FlyweightFactory}. Getters take no parameters and return a
+ * primitive, setters take one primitive and return void.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Offset {
+    /**
+     * @return the offset of the value in bytes, relative to the base of the record.
+     */
+    int value();
+
+}
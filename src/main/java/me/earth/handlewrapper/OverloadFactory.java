@@ -0,0 +1,307 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.OverloadWrapper;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ARRAYLENGTH;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.ICONST_M1;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.IF_ICMPNE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INSTANCEOF;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.ISTORE;
+
+/**
+ * Generates the {@link OverloadWrapper}s for
+ * {@link WrapperFactory#wrapOverloads(Class, String)}:
+ *
+ * <blockquote><pre>{@code
+ * public class SomeClass_overloadsID extends OverloadWrapper {
+ *     private static final MethodHandle HANDLE_0; // handle(String)
+ *     private static final MethodHandle HANDLE_1; // handle(Object)
+ *
+ *     protected int select(Object[] args) {
+ *         int length = args.length;
+ *         if (length == 2 && (args[1] == null || args[1] instanceof String)) return 0;
+ *         if (length == 2) return 1;
+ *         return -1;
+ *     }
+ *
+ *     protected Object invoke(int index, Object[] args) throws Throwable {
+ *         switch (index) {
+ *             case 0: return HANDLE_0.invokeExact((SomeClass) args[0], (String) args[1]);
+ *             case 1: return HANDLE_1.invokeExact((SomeClass) args[0], args[1]);
+ *             default: throw badIndex(index);
+ *         }
+ *     }
+ * }
+ * }</pre></blockquote>
+ */
+final class OverloadFactory {
+    private static final String CTR_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Method[].class), Type.BOOLEAN_TYPE, Type.getType(int[][].class));
+
+    private OverloadFactory() {
+        throw new AssertionError();
+    }
+
+    static OverloadWrapper create(Class<?> owner, String name) throws Throwable {
+        List<Method> methods = sort(overloads(owner, name));
+        if (methods.isEmpty()) {
+            throw new IllegalArgumentException("Couldn't find an accessible method " + name + " in " + owner.getName() + ".");
+        }
+
+        boolean isStatic = Modifier.isStatic(methods.get(0).getModifiers());
+        for (Method method : methods) {
+            if (Modifier.isStatic(method.getModifiers()) != isStatic) {
+                throw new IllegalArgumentException("Overloads of " + name + " in " + owner.getName() + " mix static and instance methods.");
+            }
+        }
+
+        MethodHandle[] handles = new MethodHandle[methods.size()];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = Util.erase(MethodHandles.lookup().unreflect(methods.get(i)));
+        }
+
+        int[] ids = Util.ids(handles.length);
+        String className = Util.className(owner, "overloads", ids[0]);
+        String description = className.replace(".", "/");
+        String superName = Type.getInternalName(OverloadWrapper.class);
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, superName, ids);
+        Util.constructor(cw, superName, CTR_DESC);
+        buildSelect(cw, superName, methods, isStatic ? 0 : 1);
+        buildInvoke(cw, description, superName, handles, isStatic ? 0 : 1);
+        cw.visitEnd();
+
+        Class<?> wrapperClass = Util.define(cw, className, owner.getClassLoader(), ids, handles);
+        return (OverloadWrapper) wrapperClass.getConstructor(Method[].class, boolean.class, int[][].class)
+                                             .newInstance(methods.toArray(new Method[0]), isStatic, conflicts(methods));
+    }
+
+    /**
+     * @return all methods with the given name declared by the class, its
+     *         superclasses and the public ones of its interfaces, except
+     *         overridden ones and those that can't be made accessible.
+     */
+    private static List<Method> overloads(Class<?> owner, String name) {
+        List<Method> methods = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        List<Method> candidates = new ArrayList<>();
+        for (Class<?> c = owner; c != null; c = c.getSuperclass()) {
+            candidates.addAll(Arrays.asList(c.getDeclaredMethods()));
+        }
+
+        candidates.addAll(Arrays.asList(owner.getMethods()));
+        for (Method method : candidates) {
+            if (method.getName().equals(name) && !method.isSynthetic() && !method.isBridge()
+                    && makeAccessible(method) // an inaccessible override mustn't hide what it overrides
+                    && signatures.add(Arrays.toString(method.getParameterTypes()))) {
+                methods.add(method);
+            }
+        }
+
+        return methods;
+    }
+
+    /**
+     * Sorts the overloads so that no overload comes after
+     * another one that is applicable to fewer arguments.
+     */
+    private static List<Method> sort(List<Method> methods) {
+        List<Method> remaining = new ArrayList<>(methods);
+        List<Method> sorted = new ArrayList<>(methods.size());
+        while (!remaining.isEmpty()) {
+            for (Method method : remaining) {
+                boolean mostSpecific = true;
+                for (Method other : remaining) {
+                    if (other != method && isMoreSpecific(other, method)) {
+                        mostSpecific = false;
+                        break;
+                    }
+                }
+
+                if (mostSpecific) {
+                    sorted.add(method);
+                    remaining.remove(method);
+                    break;
+                }
+            }
+        }
+
+        return sorted;
+    }
+
+    /**
+     * @return for every overload the indices of the overloads with as many
+     *         parameters of which neither is more specific. If both are
+     *         applicable a call is ambiguous, javac wouldn't compile it.
+     */
+    private static int[][] conflicts(List<Method> methods) {
+        int[][] conflicts = new int[methods.size()][];
+        for (int i = 0; i < conflicts.length; i++) {
+            List<Integer> indices = new ArrayList<>();
+            for (int j = 0; j < conflicts.length; j++) {
+                Method a = methods.get(i);
+                Method b = methods.get(j);
+                if (i != j && a.getParameterTypes().length == b.getParameterTypes().length
+                        && !isMoreSpecific(a, b) && !isMoreSpecific(b, a)) {
+                    indices.add(j);
+                }
+            }
+
+            conflicts[i] = indices.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        return conflicts;
+    }
+
+    /**
+     * @return <tt>true</tt> if every argument accepted by b is also
+     *         accepted by a. Primitive parameters take their box.
+     */
+    private static boolean isMoreSpecific(Method a, Method b) {
+        Class<?>[] aTypes = a.getParameterTypes();
+        Class<?>[] bTypes = b.getParameterTypes();
+        if (aTypes.length != bTypes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < aTypes.length; i++) {
+            if (!bTypes[i].isAssignableFrom(aTypes[i].isPrimitive() ? box(aTypes[i]) : aTypes[i]) && bTypes[i] != aTypes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // protected int select(Object[] args)
+    private static void buildSelect(ClassWriter cw, String superName, List<Method> methods, int offset) {
+        MethodVisitor mv = cw.visitMethod(ACC_PROTECTED, "select", "([Ljava/lang/Object;)I", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitInsn(ARRAYLENGTH);
+        mv.visitVarInsn(ISTORE, 2);
+        for (int i = 0; i < methods.size(); i++) {
+            Class<?>[] pTypes = methods.get(i).getParameterTypes();
+            Label next = new Label();
+            mv.visitVarInsn(ILOAD, 2);
+            mv.visitLdcInsn(pTypes.length + offset);
+            mv.visitJumpInsn(IF_ICMPNE, next);
+            for (int p = 0; p < pTypes.length; p++) {
+                Class<?> type = pTypes[p];
+                if (type == Object.class) {
+                    continue;
+                }
+
+                if (!Util.isPublic(type)) {
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitLdcInsn(i);
+                    mv.visitLdcInsn(p);
+                    loadArg(mv, p + offset);
+                    mv.visitMethodInsn(INVOKEVIRTUAL, superName, "isInstance", "(IILjava/lang/Object;)Z", false);
+                    mv.visitJumpInsn(IFEQ, next);
+                    continue;
+                }
+
+                Label applicable = new Label();
+                if (!type.isPrimitive()) { // null is applicable to reference types only
+                    loadArg(mv, p + offset);
+                    mv.visitJumpInsn(IFNULL, applicable);
+                }
+
+                loadArg(mv, p + offset);
+                mv.visitTypeInsn(INSTANCEOF, Type.getInternalName(type.isPrimitive() ? box(type) : type));
+                mv.visitJumpInsn(IFEQ, next);
+                mv.visitLabel(applicable);
+            }
+
+            mv.visitLdcInsn(i);
+            mv.visitInsn(IRETURN);
+            mv.visitLabel(next);
+        }
+
+        mv.visitInsn(ICONST_M1);
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    // protected Object invoke(int index, Object[] args)
+    private static void buildInvoke(ClassWriter cw, String description, String superName, MethodHandle[] handles, int offset) {
+        MethodVisitor mv = cw.visitMethod(ACC_PROTECTED, "invoke", "(I[Ljava/lang/Object;)Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
+        mv.visitCode();
+        Label[] labels = new Label[handles.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = new Label();
+        }
+
+        Label dflt = new Label();
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitTableSwitchInsn(0, labels.length - 1, dflt, labels);
+        for (int i = 0; i < handles.length; i++) {
+            mv.visitLabel(labels[i]);
+            MethodType type = handles[i].type();
+            Util.getHandle(mv, description, i);
+            for (int param = 0; param < type.parameterCount(); param++) {
+                // the target, if there is one, is args[0] and takes the place of the offset
+                Util.loadElement(mv, 2, param, Type.getType(type.parameterType(param)));
+            }
+
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", type.toMethodDescriptorString(), false);
+            Util.box(Type.getType(type.returnType()), mv);
+            mv.visitInsn(ARETURN);
+        }
+
+        mv.visitLabel(dflt);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, superName, "badIndex", "(I)Ljava/lang/IndexOutOfBoundsException;", false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void loadArg(MethodVisitor mv, int index) {
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitLdcInsn(index);
+        mv.visitInsn(AALOAD);
+    }
+
+    private static Class<?> box(Class<?> primitive) {
+        return MethodType.methodType(primitive).wrap().returnType();
+    }
+
+    private static boolean makeAccessible(Method method) {
+        try {
+            method.setAccessible(true);
+            return true;
+        } catch (RuntimeException e) { // SecurityException or InaccessibleObjectException
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_VARARGS;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+
+/**
+ * Compiles a chain of fields and no-arg methods, like
+ * <tt>entity.world.chunkProvider.getLoadedChunks()</tt>, into a
+ * single {@link HandleWrapper}.
+ *
+ * Wrapping every hop on its own means one invoke, one cast and
+ * one box per hop. Instead the created class holds a <b>static final</b>
+ * MethodHandle for every hop and traverses the whole path in one method:
+ *
+ * <blockquote><pre>{@code
+ * public class EntityClass_pathID implements HandleWrapper {
+ *     private static final MethodHandle HANDLE_0; // world
+ *     private static final MethodHandle HANDLE_1; // chunkProvider
+ *     private static final MethodHandle HANDLE_2; // getLoadedChunks()
+ *
+ *     public Object invoke(Object...args) throws Throwable {
+ *         Entity entity = (Entity) args[0];
+ *         if (entity == null) return null; // only if nullSafe
+ *         World world = (World) HANDLE_0.invoke(entity);
+ *         if (world == null) return null;
+ *         ChunkProvider provider = (ChunkProvider) HANDLE_1.invoke(world);
+ *         if (provider == null) return null;
+ *         return HANDLE_2.invoke(provider);
+ *     }
+ *
+ *     ...
+ * }
+ * }</pre></blockquote>
+ */
+public class PathFactory {
+    private PathFactory() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Resolves the given path against the root class and calls
+     * {@link PathFactory#wrapPath(boolean, Member...)}. The path
+     * consists of field names and names of methods without parameters,
+     * separated by dots. Methods are marked with a trailing <tt>()</tt>:
+     *
+     * <blockquote><pre>{@code
+     *      HandleWrapper wrapper = PathFactory.wrapPath(Entity.class, "world.chunkProvider.getLoadedChunks()", true);
+     *      List<Chunk> chunks = (List<Chunk>) wrapper.invoke(entity);
+     * }</pre></blockquote>
+     *
+     * Fields and methods are looked up in the class and its superclasses,
+     * methods also among the public methods of its interfaces.
+     *
+     * @param root the class the path starts at.
+     * @param path the path to resolve.
+     * @param nullSafe if <tt>null</tt> should be returned if any hop is null,
+     *                 instead of throwing a NullPointerException.
+     * @return a {@link HandleWrapper} that takes the root object and returns
+     *         the value at the end of the path.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static HandleWrapper wrapPath(Class<?> root, String path, boolean nullSafe) throws Throwable {
+        String[] parts = path.split("\\.");
+        Member[] chain = new Member[parts.length];
+        Class<?> current = root;
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.endsWith("()")) {
+                Method method = findMethod(current, part.substring(0, part.length() - 2));
+                chain[i] = method;
+                current = method.getReturnType();
+            } else {
+                Field field = Util.findField(current, part);
+                chain[i] = field;
+                current = field.getType();
+            }
+        }
+
+        return wrapPath(nullSafe, chain);
+    }
+
+    /**
+     * Wraps the given chain of non static fields and non static methods
+     * without parameters. Every member needs to be accessible on the
+     * type of the previous one, the first member determines the root class.
+     * Only the last member may have a primitive or void type.
+     *
+     * @param nullSafe if <tt>null</tt> should be returned if any hop is null,
+     *                 instead of throwing a NullPointerException.
+     * @param chain the members to traverse.
+     * @return a {@link HandleWrapper} that takes the root object and returns
+     *         the value at the end of the path.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static HandleWrapper wrapPath(boolean nullSafe, Member...chain) throws Throwable {
+        if (chain == null || chain.length == 0) {
+            throw new IllegalArgumentException("Path can't be empty.");
+        }
+
+        MethodHandle[] handles = new MethodHandle[chain.length];
+        Class<?>[] types = new Class<?>[chain.length];
+        for (int i = 0; i < chain.length; i++) {
+            Member member = chain[i];
+            if (member == null) {
+                throw new IllegalArgumentException("A Member was null.");
+            } else if (Modifier.isStatic(member.getModifiers())) {
+                throw new IllegalArgumentException("Member: " + member.getName() + " is static.");
+            } else if (i > 0 && !member.getDeclaringClass().isAssignableFrom(types[i - 1])) {
+                throw new IllegalArgumentException("Member: " + member.getName() + " can't be accessed on " + types[i - 1].getName() + ".");
+            }
+
+            if (member instanceof Field) {
+                Field field = (Field) member;
+                field.setAccessible(true);
+                handles[i] = MethodHandles.lookup().unreflectGetter(field);
+                types[i] = field.getType();
+            } else if (member instanceof Method && ((Method) member).getParameterTypes().length == 0) {
+                Method method = (Method) member;
+                method.setAccessible(true);
+                handles[i] = MethodHandles.lookup().unreflect(method);
+                types[i] = method.getReturnType();
+            } else {
+                throw new IllegalArgumentException("Member: " + member.getName() + " is neither a Field nor a Method without parameters.");
+            }
+
+            handles[i] = Util.erase(handles[i]); // the generated class can't see types that aren't public
+            if (i < chain.length - 1 && types[i].isPrimitive()) {
+                throw new IllegalArgumentException("Member: " + member.getName() + " is primitive but not at the end of the path.");
+            }
+        }
+
+        Class<?> root = chain[0].getDeclaringClass();
+        int[] ids = Util.ids(chain.length);
+        String name = Util.className(root, "path", ids[0]);
+        String description = name.replace(".", "/");
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, "java/lang/Object", ids, Type.getInternalName(HandleWrapper.class));
+        Util.constructor(cw, "java/lang/Object", "()V");
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_VARARGS, "invoke", "([Ljava/lang/Object;)Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
+        buildPathMethod("invoke", description, mv, nullSafe, chain, types);
+
+        mv = cw.visitMethod(ACC_PUBLIC | ACC_VARARGS, "invokeExact", "([Ljava/lang/Object;)Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
+        buildPathMethod("invokeExact", description, mv, nullSafe, chain, types);
+
+        cw.visitEnd();
+        return (HandleWrapper) Util.instantiate(cw, name, root.getClassLoader(), ids, handles);
+    }
+
+    private static void buildPathMethod(String name, String description, MethodVisitor mv, boolean nullSafe, Member[] chain, Class<?>[] types) {
+        mv.visitCode();
+        Label returnNull = new Label();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitInsn(ICONST_0);
+        mv.visitInsn(AALOAD);
+        mv.visitVarInsn(ASTORE, 2);
+
+        // every hop gets its own local, so the frames never have to merge two different types.
+        for (int i = 0; i < chain.length; i++) {
+            if (nullSafe) {
+                mv.visitVarInsn(ALOAD, 2 + i);
+                mv.visitJumpInsn(IFNULL, returnNull);
+            }
+
+            Class<?> receiver = Util.eraseType(chain[i].getDeclaringClass());
+            Util.getHandle(mv, description, i);
+            mv.visitVarInsn(ALOAD, 2 + i);
+            if (receiver != Object.class) {
+                mv.visitTypeInsn(CHECKCAST, Type.getInternalName(receiver));
+            }
+
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", name, Util.buildHandleSignature(false, receiver, Util.eraseType(types[i])), false);
+            if (i < chain.length - 1) {
+                mv.visitVarInsn(ASTORE, 3 + i);
+            }
+        }
+
+        Util.box(Type.getType(Util.eraseType(types[types.length - 1])), mv);
+        mv.visitInsn(ARETURN);
+
+        if (nullSafe) {
+            mv.visitLabel(returnNull);
+            mv.visitInsn(ACONST_NULL);
+            mv.visitInsn(ARETURN);
+        }
+
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static Method findMethod(Class<?> clazz, String name) {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredMethod(name);
+            } catch (NoSuchMethodException ignored) {
+                // check superclass
+            }
+        }
+
+        try {
+            return clazz.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Couldn't find method " + name + "() in " + clazz.getName() + ".");
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.ProxyInterceptor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+
+/**
+ * Creates implementations of interfaces whose methods call a MethodHandle,
+ * a faster replacement for {@link java.lang.reflect.Proxy}. A Proxy calls its
+ * {@link java.lang.reflect.InvocationHandler} with the {@link Method} and the
+ * boxed arguments in an Object[]. The created class instead holds one
+ * <b>static final</b> MethodHandle per method and passes the arguments as
+ * they are:
+ *
+ * <blockquote><pre>{@code
+ * public class SomeInterface_proxyID implements SomeInterface {
+ *     private static final MethodHandle HANDLE_0; // int add(int, int)
+ *     private static final MethodHandle HANDLE_1; // String name()
+ *
+ *     public int add(int a, int b) {
+ *         return (int) HANDLE_0.invokeExact(a, b);
+ *     }
+ *
+ *     public String name() {
+ *         return (String) HANDLE_1.invokeExact();
+ *     }
+ * }
+ * }</pre></blockquote>
+ *
+ * The interface needs to be public. Checked exceptions thrown by a handle
+ * are passed on, even if the method doesn't declare them.
+ */
+public class ProxyFactory {
+    private ProxyFactory() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Creates a proxy that calls the given delegate, decorated by the interceptor.
+     *
+     * @param around the interface to implement.
+     * @param delegate the object whose methods get called.
+     * @param interceptor called once for every method of the interface, can be
+     *                    <tt>null</tt> to just delegate every method.
+     * @param <T> the type of the interface.
+     * @return a proxy for the delegate.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static <T> T create(Class<T> around, T delegate, ProxyInterceptor interceptor) throws Throwable {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate can't be null.");
+        }
+
+        Map<Method, MethodHandle> handles = new LinkedHashMap<>();
+        for (Method method : methods(around).values()) {
+            MethodHandle target = MethodHandles.publicLookup().unreflect(method).bindTo(delegate);
+            handles.put(method, interceptor == null ? target : interceptor.intercept(method, target));
+        }
+
+        return create(around, handles);
+    }
+
+    /**
+     * Creates a proxy whose methods call the given handles. Every abstract
+     * method of the interface needs a handle, default methods can be left
+     * out and keep their implementation.
+     *
+     * @param around the interface to implement.
+     * @param handles the handles for the methods, they don't take the proxy
+     *                and are adapted to the type of their method.
+     * @param <T> the type of the interface.
+     * @return a proxy calling the handles.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T create(Class<T> around, Map<Method, MethodHandle> handles) throws Throwable {
+        Map<String, Method> methods = methods(around);
+        for (Map.Entry<Method, MethodHandle> entry : handles.entrySet()) {
+            Method method = entry.getKey();
+            if (methods.get(method.getName() + Type.getMethodDescriptor(method)) == null || !method.getDeclaringClass().isAssignableFrom(around)) {
+                throw new IllegalArgumentException("Method: " + method.getName() + " is not part of " + around.getName() + ".");
+            } else if (entry.getValue() == null) {
+                throw new IllegalArgumentException("Handle for method: " + method.getName() + " is null.");
+            }
+        }
+
+        Map<Method, MethodHandle> implemented = new LinkedHashMap<>();
+        for (Method method : methods.values()) {
+            MethodHandle handle = find(handles, method);
+            if (handle == null) {
+                if (!method.isDefault()) {
+                    throw new IllegalArgumentException("No handle for abstract method: " + method.getName() + ".");
+                }
+
+                continue;
+            }
+
+            try {
+                implemented.put(method, handle.asType(MethodType.methodType(method.getReturnType(), method.getParameterTypes())));
+            } catch (WrongMethodTypeException e) {
+                throw new IllegalArgumentException("Handle of type " + handle.type() + " can't be adapted to method " + method.getName() + ".", e);
+            }
+        }
+
+        Method[] methodArray = implemented.keySet().toArray(new Method[0]);
+        MethodHandle[] handleArray = implemented.values().toArray(new MethodHandle[0]);
+        int[] ids = Util.ids(handleArray.length);
+        String name = Util.className(around, "proxy", Handles.nextId());
+        String description = name.replace(".", "/");
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        Util.beginHandleClass(cw, description, "java/lang/Object", ids, Type.getInternalName(around));
+        Util.constructor(cw, "java/lang/Object", "()V");
+        for (int i = 0; i < methodArray.length; i++) {
+            Method method = methodArray[i];
+            String descriptor = Type.getMethodDescriptor(method);
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, method.getName(), descriptor, null, Util.internalTypeArray(method.getExceptionTypes()));
+            mv.visitCode();
+            Util.getHandle(mv, description, i);
+            Util.loadParams(mv, false, method.getParameterTypes());
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", descriptor, false);
+            Util.makeReturn(mv, Type.getReturnType(method));
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        cw.visitEnd();
+        return (T) Util.instantiate(cw, name, around.getClassLoader(), ids, handleArray);
+    }
+
+    /**
+     * @return all instance methods of the interface, by name and descriptor.
+     */
+    private static Map<String, Method> methods(Class<?> around) {
+        if (!around.isInterface() || !Modifier.isPublic(around.getModifiers())) {
+            throw new IllegalArgumentException("Class: " + around.getName() + " is not a public interface.");
+        }
+
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method method : around.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())) {
+                String key = method.getName() + Type.getMethodDescriptor(method);
+                Method previous = methods.get(key);
+                // the same method can be inherited from multiple interfaces, prefer the most specific.
+                if (previous == null || previous.getDeclaringClass().isAssignableFrom(method.getDeclaringClass())) {
+                    methods.put(key, method);
+                }
+            }
+        }
+
+        return methods;
+    }
+
+    private static MethodHandle find(Map<Method, MethodHandle> handles, Method method) {
+        MethodHandle handle = handles.get(method);
+        if (handle == null) {
+            // the key might have been taken from a superinterface.
+            String key = method.getName() + Type.getMethodDescriptor(method);
+            for (Map.Entry<Method, MethodHandle> entry : handles.entrySet()) {
+                if (key.equals(entry.getKey().getName() + Type.getMethodDescriptor(entry.getKey()))) {
+                    return entry.getValue();
+                }
+            }
+        }
+
+        return handle;
+    }
+
+}
@@ -0,0 +1,21 @@
+package me.earth.handlewrapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a listener registered with an {@link EventBus}.
+ * The method needs to have exactly one parameter, the event.
+ * It receives all events that are instances of that parameter type.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Subscribe {
+    /**
+     * @return the priority of this listener, higher priorities are called first.
+     */
+    int priority() default 0;
+
+}
@@ -0,0 +1,145 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.ArgBuffer;
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link HandleWrapper} that starts out calling the plain
+ * {@link MethodHandle} and only generates the wrapper class once it
+ * has been invoked often enough. Creating a class with ASM is costly,
+ * so members that are only called a few times never pay for it.
+ * <p>
+ * <p>Until the wrapper class is ready, calls go through a spreader
+ * handle, which is slower but doesn't need a class. Both
+ * {@link HandleWrapper#invoke(Object...)} and
+ * {@link HandleWrapper#invokeExact(Object...)} convert their arguments
+ * like {@link MethodHandle#invoke(Object...)} during that time.
+ * The generated wrapper is then swapped in for all following calls.
+ *
+ * @see WrapperFactory#wrapTiered(MethodHandle, Class, boolean, Class, int, Executor, Class[])
+ */
+public final class TieredWrapper implements HandleWrapper {
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final MethodHandle spreader;
+    private final MethodHandle handle;
+    private final MethodType type;
+    private final Class<?> owner;
+    private final boolean staticOrCtr;
+    private final Class<?> rType;
+    private final Class<?>[] pTypes;
+    private final int threshold;
+    private final Executor executor;
+    private volatile HandleWrapper wrapper;
+    private volatile Throwable failure;
+    private int calls; // racy on purpose, it only needs to be roughly right
+
+    /**
+     * @param handle the handle, already adapted with {@link WrapperFactory#adapt(MethodHandle, Class, boolean, Class, Class[])},
+     *               so that arguments are converted the same way before and after the wrapper class is swapped in.
+     */
+    TieredWrapper(MethodHandle handle, Class<?> owner, boolean staticOrCtr, Class<?> rType, int threshold, Executor executor, Class<?>...pTypes) {
+        int arity = handle.type().parameterCount();
+        this.spreader = handle.asType(MethodType.genericMethodType(arity)).asSpreader(Object[].class, arity);
+        this.handle = handle;
+        this.type = handle.type();
+        this.owner = owner;
+        this.staticOrCtr = staticOrCtr;
+        this.rType = rType;
+        this.pTypes = pTypes;
+        this.threshold = threshold;
+        this.executor = executor;
+    }
+
+    @Override
+    public Object invoke(Object...args) throws Throwable {
+        HandleWrapper wrapper = this.wrapper;
+        if (wrapper != null) {
+            return wrapper.invoke(args);
+        }
+
+        count();
+        return spreader.invokeExact(args);
+    }
+
+    @Override
+    public Object invokeExact(Object...args) throws Throwable {
+        HandleWrapper wrapper = this.wrapper;
+        if (wrapper != null) {
+            return wrapper.invokeExact(args);
+        }
+
+        count();
+        return spreader.invokeExact(args);
+    }
+
+    @Override
+    public void invokeBuffer(ArgBuffer args) throws Throwable {
+        HandleWrapper wrapper = this.wrapper;
+        if (wrapper != null) {
+            wrapper.invokeBuffer(args);
+            return;
+        }
+
+        // checked and stored like the generated class will do it.
+        count();
+        args.setResult(type.returnType(), spreader.invokeExact(args.toArray(type)));
+    }
+
+    /**
+     * @return <tt>true</tt> if calls go through the generated wrapper class.
+     */
+    public boolean isCompiled() {
+        return wrapper != null;
+    }
+
+    /**
+     * @return the Throwable that occurred while generating the wrapper
+     *         class, a {@link RejectedExecutionException} if the executor
+     *         didn't take the task, or <tt>null</tt>. If it failed the
+     *         handle keeps being called directly.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    private void count() {
+        if (calls < threshold && ++calls == threshold) {
+            schedule();
+        }
+    }
+
+    void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        wrapper = WrapperFactory.wrap(handle, owner, staticOrCtr, rType, pTypes);
+                    } catch (Throwable t) {
+                        failure = t;
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                failure = e; // e.g. the executor has been shut down, the caller still gets its result
+            }
+        }
+    }
+
+    /**
+     * @return the default Executor which generates wrapper classes
+     *         on a single low priority daemon thread.
+     */
+    static Executor defaultExecutor() {
+        return ExecutorHolder.EXECUTOR;
+    }
+
+    private static final class ExecutorHolder {
+        private static final Executor EXECUTOR = Util.daemonExecutor("HandleWrapper-Tiered");
+    }
+
+}
@@ -1,11 +1,24 @@
 package me.earth.handlewrapper;
 
+import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
 import static org.objectweb.asm.Opcodes.ACONST_NULL;
 import static org.objectweb.asm.Opcodes.ALOAD;
 import static org.objectweb.asm.Opcodes.ARETURN;
@@ -14,13 +27,17 @@ import static org.objectweb.asm.Opcodes.DLOAD;
 import static org.objectweb.asm.Opcodes.DRETURN;
 import static org.objectweb.asm.Opcodes.FLOAD;
 import static org.objectweb.asm.Opcodes.FRETURN;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
 import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
 import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
 import static org.objectweb.asm.Opcodes.IRETURN;
 import static org.objectweb.asm.Opcodes.LLOAD;
 import static org.objectweb.asm.Opcodes.LRETURN;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
 import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_6;
 
 final class Util {
     private Util() {
@@ -46,7 +63,7 @@ final class Util {
             case Type.BOOLEAN:
                 o = "java/lang/Boolean"; s = "(Z)Ljava/lang/Boolean;"; break;
             case Type.CHAR:
-                o = "java/lang/Char";    s = "(C)Ljava/lang/Char;";    break;
+                o = "java/lang/Character"; s = "(C)Ljava/lang/Character;"; break;
             case Type.BYTE:
                 o = "java/lang/Byte";    s = "(B)Ljava/lang/Byte;";    break;
             case Type.SHORT:
@@ -77,7 +94,7 @@ final class Util {
             case Type.BOOLEAN:
                 o = "java/lang/Boolean"; n = "booleanValue"; s = "()Z"; break;
             case Type.CHAR:
-                o = "java/lang/Char";    n = "charValue";    s = "()C"; break;
+                o = "java/lang/Character"; n = "charValue";  s = "()C"; break;
             case Type.BYTE:
                 o = "java/lang/Byte";    n = "byteValue";    s = "()B"; break;
             case Type.SHORT:
@@ -131,6 +148,12 @@ final class Util {
         }
     }
 
+    public static void loadParams(MethodVisitor mv, boolean isStatic, Type... types) {
+        for (int i = 0, var = isStatic ? 0 : 1; i < types.length; i++, var += types[i - 1].getSize()) {
+            loadParam(mv, types[i], var);
+        }
+    }
+
     public static void loadParam(MethodVisitor mv, Type type, int var) {
         switch (type.getSort()) {
             case Type.BOOLEAN:
@@ -181,6 +204,110 @@ final class Util {
         }
     }
 
+    /**
+     * Generated classes can only reference public types. Adapts the handle
+     * so that every type that isn't public is passed as an Object instead.
+     */
+    public static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (!isPublic(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+
+        if (!isPublic(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+
+        return handle.asType(type);
+    }
+
+    /**
+     * @return <tt>true</tt> if the primitive from can be converted to the
+     *         primitive to by a widening conversion, like {@link Field#getLong(Object)} does.
+     */
+    public static boolean widens(Class<?> from, Class<?> to) {
+        if (from == byte.class) {
+            return to == short.class || to == int.class || to == long.class || to == float.class || to == double.class;
+        } else if (from == short.class || from == char.class) {
+            return to == int.class || to == long.class || to == float.class || to == double.class;
+        } else if (from == int.class) {
+            return to == long.class || to == float.class || to == double.class;
+        } else if (from == long.class) {
+            return to == float.class || to == double.class;
+        } else if (from == float.class) {
+            return to == double.class;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the size of the primitive type in bytes, booleans take one byte.
+     */
+    public static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == char.class || type == short.class) {
+            return 2;
+        }
+
+        return 1;
+    }
+
+    /**
+     * @return the type, or Object if it isn't public.
+     */
+    public static Class<?> eraseType(Class<?> type) {
+        return isPublic(type) ? type : Object.class;
+    }
+
+    public static Class<?>[] eraseTypes(Class<?>...types) {
+        Class<?>[] result = new Class<?>[types.length];
+        for (int i = 0; i < types.length; i++) {
+            result[i] = eraseType(types[i]);
+        }
+
+        return result;
+    }
+
+    public static boolean isPublic(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+
+        return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+    }
+
+    /**
+     * Loads the element with the given index from the Object[] in the given
+     * local variable and unboxes or casts it to the given type.
+     */
+    public static void loadElement(MethodVisitor mv, int arrayVar, int index, Type type) {
+        mv.visitVarInsn(ALOAD, arrayVar);
+        mv.visitLdcInsn(index);
+        mv.visitInsn(AALOAD);
+        unbox(type, mv);
+    }
+
+    /**
+     * Finds the field with the given name in the class or its superclasses.
+     */
+    public static Field findField(Class<?> clazz, String name) {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {
+                // check superclass
+            }
+        }
+
+        throw new IllegalArgumentException("Couldn't find field " + name + " in " + clazz.getName() + ".");
+    }
+
     public static String[] internalTypeArray(Class<?>...types) {
         String[] result = new String[types.length];
         for (int i = 0; i < types.length; i++) {
@@ -190,4 +317,147 @@ final class Util {
         return result;
     }
 
+    /**
+     * Finds a free name for a generated class belonging to the given owner.
+     */
+    public static String className(Class<?> owner, String suffix, int id) {
+        String name = generatedName(owner.getName() + "_" + suffix + id);
+        while (exists(name)) {
+            name = name + id;
+        }
+
+        return name;
+    }
+
+    /**
+     * Moves names in the prohibited <tt>java.*</tt> packages to
+     * <tt>me.earth.handlewrapper.generated</tt>.
+     */
+    public static String generatedName(String name) {
+        return name.startsWith("java.") ? "me.earth.handlewrapper.generated." + name : name;
+    }
+
+    /**
+     * Begins a class that holds the handles for the given ids as
+     * <b>static final</b> fields called <tt>HANDLE_0</tt>, <tt>HANDLE_1</tt>, ...
+     * and creates its static initializer.
+     */
+    public static void beginHandleClass(ClassWriter cw, String description, String superName, int[] ids, String...interfaces) {
+        cw.visit(V1_6, ACC_PUBLIC | ACC_SUPER, description, null, superName, interfaces);
+        for (int i = 0; i < ids.length; i++) {
+            cw.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, handleField(i), "Ljava/lang/invoke/MethodHandle;", null, null).visitEnd();
+        }
+
+        MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+        for (int i = 0; i < ids.length; i++) {
+            mv.visitLdcInsn(ids[i]);
+            mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(Handles.class), "getHandle", "(I)Ljava/lang/invoke/MethodHandle;", false);
+            mv.visitFieldInsn(PUTSTATIC, description, handleField(i), "Ljava/lang/invoke/MethodHandle;");
+        }
+
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Creates a public constructor that passes all of its arguments
+     * to the super constructor with the same descriptor.
+     */
+    public static void constructor(ClassWriter cw, String superName, String descriptor) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", descriptor, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        loadParams(mv, false, Type.getArgumentTypes(descriptor));
+        mv.visitMethodInsn(INVOKESPECIAL, superName, "<init>", descriptor, false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    public static String handleField(int index) {
+        return "HANDLE_" + index;
+    }
+
+    public static void getHandle(MethodVisitor mv, String description, int index) {
+        mv.visitFieldInsn(GETSTATIC, description, handleField(index), "Ljava/lang/invoke/MethodHandle;");
+    }
+
+    public static int[] ids(int amount) {
+        int[] ids = new int[amount];
+        for (int i = 0; i < amount; i++) {
+            ids[i] = Handles.nextId();
+        }
+
+        return ids;
+    }
+
+    /**
+     * Defines and initializes the class built by the given ClassWriter,
+     * the handles are only available for the static initializer.
+     */
+    public static Class<?> define(ClassWriter cw, String name, ClassLoader classLoader, int[] ids, MethodHandle...handles) throws Throwable {
+        return define(cw.toByteArray(), name, classLoader, ids, handles);
+    }
+
+    /**
+     * Defines and initializes a class from its bytes,
+     * the handles are only available for the static initializer.
+     */
+    public static Class<?> define(byte[] bytes, String name, ClassLoader classLoader, int[] ids, MethodHandle...handles) throws Throwable {
+        for (int i = 0; i < ids.length; i++) {
+            Handles.add(ids[i], handles[i]);
+        }
+
+        try {
+            Class<?> wrapperClass = new WrapperLoader(parent(classLoader)).define(name, bytes);
+            return Class.forName(name, true, wrapperClass.getClassLoader());
+        } finally {
+            for (int id : ids) {
+                Handles.del(id);
+            }
+        }
+    }
+
+    /**
+     * Defines and initializes a class whose static initializer gets its
+     * handle with {@link Handles#getHandle(Class)}.
+     */
+    public static Class<?> define(byte[] bytes, String name, ClassLoader classLoader, MethodHandle handle) throws Throwable {
+        Class<?> wrapperClass = new WrapperLoader(parent(classLoader), handle).define(name, bytes);
+        return Class.forName(name, true, wrapperClass.getClassLoader());
+    }
+
+    /**
+     * @return an Executor running tasks one after another on a
+     *         single low priority daemon thread with the given name.
+     */
+    public static ExecutorService daemonExecutor(String name) {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Classes of the JDK have the bootstrap loader, <tt>null</tt>, which
+     * can't see the classes of this library the generated classes extend.
+     *
+     * @return the given loader, or the loader of this library for <tt>null</tt>.
+     */
+    public static ClassLoader parent(ClassLoader classLoader) {
+        return classLoader == null ? Util.class.getClassLoader() : classLoader;
+    }
+
+    /**
+     * Defines the class built by the given ClassWriter and
+     * instantiates it with its default constructor.
+     */
+    public static Object instantiate(ClassWriter cw, String name, ClassLoader classLoader, int[] ids, MethodHandle...handles) throws Throwable {
+        return define(cw, name, classLoader, ids, handles).getConstructor().newInstance();
+    }
+
 }
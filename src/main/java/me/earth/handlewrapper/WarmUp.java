@@ -0,0 +1,197 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms up a freshly generated {@link HandleWrapper} in the background.
+ * The first calls of a wrapper run in the interpreter and spin the lambda
+ * forms of its handle, which shows up as latency right after a wrapper
+ * has been created. A WarmUp calls the wrapper with sample arguments
+ * often enough for the JIT to compile it, before real calls arrive:
+ *
+ * <blockquote><pre>{@code
+ *      HandleWrapper wrapper = WrapperFactory.wrap(handle, method);
+ *      WarmUp warmUp = WarmUp.schedule(wrapper, new Object[]{noOpTarget, 0});
+ *      ...
+ *      warmUp.getProgress(); // 0.0 to 1.0
+ * }</pre></blockquote>
+ *
+ * The samples have to be safe to call with, e.g. a receiver whose
+ * state doesn't matter. The calls are made in chunks, so that several
+ * WarmUps share the thread and can be cancelled quickly. If the wrapper
+ * throws the WarmUp stops and keeps the Throwable.
+ */
+public final class WarmUp {
+    /** Enough calls for C2, which compiles after 10000 invocations by default. */
+    public static final int DEFAULT_ITERATIONS = 20_000;
+    private static final int CHUNK = 1_000;
+    private static final AtomicInteger PENDING = new AtomicInteger();
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final HandleWrapper wrapper;
+    private final List<Object[]> samples;
+    private final int iterations;
+    private final Executor executor;
+    private volatile int completed;
+    private volatile boolean cancelled;
+    private volatile Throwable failure;
+    private int sink; // uses the results, so calls to pure members aren't removed
+
+    private WarmUp(HandleWrapper wrapper, List<Object[]> samples, int iterations, Executor executor) {
+        this.wrapper = wrapper;
+        this.samples = samples;
+        this.iterations = iterations;
+        this.executor = executor;
+    }
+
+    /**
+     * Calls {@link WarmUp#schedule(HandleWrapper, List, int, Executor)} for the
+     * sample, {@link WarmUp#DEFAULT_ITERATIONS} and the default Executor, which
+     * runs the WarmUps on a single low priority daemon thread.
+     */
+    public static WarmUp schedule(HandleWrapper wrapper, Object[] sample) {
+        return schedule(wrapper, Collections.singletonList(sample), DEFAULT_ITERATIONS, defaultExecutor());
+    }
+
+    /**
+     * Schedules the warm up of the given wrapper.
+     *
+     * @param wrapper the wrapper to warm up.
+     * @param samples the arguments for {@link HandleWrapper#invoke(Object...)},
+     *                used in turns, so that the JIT sees all of their types.
+     * @param iterations how often to call the wrapper.
+     * @param executor the executor to run the calls on.
+     * @return a WarmUp reporting the progress.
+     */
+    public static WarmUp schedule(HandleWrapper wrapper, List<Object[]> samples, int iterations, Executor executor) {
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("A WarmUp needs at least one sample.");
+        } else if (iterations < 0) {
+            throw new IllegalArgumentException("Iterations: " + iterations + " can't be negative.");
+        }
+
+        WarmUp warmUp = new WarmUp(wrapper, new ArrayList<>(samples), iterations, executor);
+        PENDING.incrementAndGet();
+        warmUp.submit();
+        return warmUp;
+    }
+
+    /**
+     * @return the amount of WarmUps that haven't finished yet.
+     */
+    public static int getPending() {
+        return PENDING.get();
+    }
+
+    /**
+     * @return the amount of calls made so far.
+     */
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the progress from 0.0 to 1.0, 1.0 once it's done,
+     *         even if it failed or was cancelled.
+     */
+    public double getProgress() {
+        return isDone() || iterations == 0 ? 1.0 : (double) completed / iterations;
+    }
+
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * @return the Throwable thrown by the wrapper, a {@link RejectedExecutionException}
+     *         if the executor didn't take the WarmUp, or <tt>null</tt>.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Stops the WarmUp after the current chunk of calls.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Waits until the WarmUp is done.
+     *
+     * @return <tt>true</tt> if it's done, <tt>false</tt> if the time ran out.
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    private void run() {
+        int i = completed;
+        int end = Math.min(iterations, i + CHUNK);
+        try {
+            for (; i < end && !cancelled; i++) {
+                Object result = wrapper.invoke(samples.get(i % samples.size()));
+                sink += result == null ? 0 : 1;
+            }
+        } catch (Throwable t) {
+            failure = t;
+        }
+
+        completed = i;
+        if (i < iterations && !cancelled && failure == null) {
+            submit(); // let other WarmUps have a turn
+        } else {
+            finish();
+        }
+    }
+
+    private void submit() {
+        try {
+            executor.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            failure = e; // e.g. the executor has been shut down
+            finish();
+        }
+    }
+
+    private void finish() {
+        PENDING.decrementAndGet();
+        done.countDown();
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUp(" + completed + "/" + iterations + ", " + wrapper + ")";
+    }
+
+    /**
+     * @return the default Executor, which runs WarmUps on
+     *         a single low priority daemon thread.
+     */
+    static Executor defaultExecutor() {
+        return ExecutorHolder.EXECUTOR;
+    }
+
+    private static final class ExecutorHolder {
+        private static final Executor EXECUTOR = Util.daemonExecutor("HandleWrapper-WarmUp");
+    }
+
+}
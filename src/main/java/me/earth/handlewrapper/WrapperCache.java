@@ -0,0 +1,284 @@
+package me.earth.handlewrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An optional on-disk cache for the classes generated by
+ * {@link WrapperFactory#wrap(java.lang.invoke.MethodHandle, Class, boolean, Class, Class[])}
+ * and {@link WrapperFactory#wrapRetargetable(java.lang.invoke.MethodHandle, Class, boolean, Class, Class[])}.
+ * Without it every start of the JVM generates the same classes with ASM again.
+ * <p>
+ * <p>The bytes of a wrapper class are stored in a file whose name is a
+ * SHA-256 hash of:
+ * <p>-the signature shape: owner, static flag, return and parameter types,
+ * <p>-the hash of the owners class file,
+ * <p>-the version of this library and the hashes of the {@link WrapperFactory}
+ *     and Util class files, which generate the bytes.
+ * <p>
+ * <p>A change to any of these results in a different file, old files are
+ * never read again. Files are written to a temporary file first and then
+ * moved atomically, so multiple JVMs can share a directory. Every file
+ * starts with a SHA-256 digest of the class bytes, a file that doesn't
+ * match it or can't be defined is deleted and generated again. Owners
+ * whose class file can't be found aren't cached at all.
+ * <p>
+ * <p>The digest only detects corrupt files. Cached classes are defined with
+ * the loader of their owner, so the directory has to be trusted: anyone who
+ * can write to it can also write a matching digest and inject code.
+ * <p>
+ * <p>The cache can also be enabled with the system property
+ * <tt>-Dhandlewrapper.cache=directory</tt>.
+ */
+public final class WrapperCache {
+    /** Increment when the generated bytecode or the file layout changes without WrapperFactory changing. */
+    private static final int FORMAT = 2;
+    private static final int DIGEST_LENGTH = 32;
+    private static final String SUFFIX = ".class";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final ClassValue<String> CLASS_HASHES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return hashClassFile(type);
+        }
+    };
+
+    private static volatile Path directory;
+
+    static {
+        String property = System.getProperty("handlewrapper.cache");
+        if (property != null) {
+            try {
+                enable(Paths.get(property));
+            } catch (IOException | RuntimeException e) {
+                // the cache is optional, wrappers will just be generated.
+            }
+        }
+    }
+
+    private WrapperCache() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Enables the cache, all wrappers created afterwards are cached.
+     *
+     * @param directory the directory, created if it doesn't exist.
+     * @throws IOException if the directory couldn't be created.
+     */
+    public static void enable(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        WrapperCache.directory = directory;
+    }
+
+    /**
+     * Disables the cache, files already written are kept.
+     */
+    public static void disable() {
+        directory = null;
+    }
+
+    /**
+     * @return the directory of the cache, or <tt>null</tt> if it's disabled.
+     */
+    public static Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Deletes all files in the cache directory.
+     *
+     * @throws IOException if a file couldn't be deleted.
+     */
+    public static void clear() throws IOException {
+        Path directory = WrapperCache.directory;
+        if (directory == null) {
+            return;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX) || name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return how many wrapper classes have been loaded from the cache.
+     */
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    /**
+     * @return how many wrapper classes had to be generated while the cache was enabled.
+     */
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    /**
+     * @return the key for the given signature,
+     *         or <tt>null</tt> if it can't be cached.
+     */
+    static String key(Class<?> owner, boolean staticOrCtr, Class<?> rType, String superName, String ctrDescriptor, Class<?>...pTypes) {
+        String ownerHash = CLASS_HASHES.get(owner);
+        String factoryHash = CLASS_HASHES.get(WrapperFactory.class);
+        String utilHash = CLASS_HASHES.get(Util.class); // box, unbox, loadParams, erase...
+        if (ownerHash.isEmpty() || factoryHash.isEmpty() || utilHash.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder builder = new StringBuilder()
+            .append(FORMAT).append('\n')
+            .append(WrapperCache.class.getPackage() == null ? null : WrapperCache.class.getPackage().getImplementationVersion()).append('\n')
+            .append(factoryHash).append('\n')
+            .append(utilHash).append('\n')
+            .append(owner.getName()).append('\n')
+            .append(ownerHash).append('\n')
+            .append(staticOrCtr).append('\n')
+            .append(Util.isPublic(owner)).append('\n')
+            .append(rType == null ? null : rType.getName() + Util.isPublic(rType)).append('\n')
+            .append(superName).append('\n')
+            .append(ctrDescriptor).append('\n');
+
+        for (Class<?> pType : pTypes) {
+            // non-public types are erased, which changes the bytes.
+            builder.append(pType.getName()).append(Util.isPublic(pType)).append('\n');
+        }
+
+        return hex(digest().digest(builder.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Doesn't count a hit, the bytes might still fail to be defined.
+     *
+     * @return the cached bytes, or <tt>null</tt> if there are none or
+     *         they don't match their digest, then the file is deleted.
+     */
+    static byte[] load(Path directory, String key) {
+        Path file = directory.resolve(key + SUFFIX);
+        try {
+            if (Files.isRegularFile(file)) {
+                byte[] content = Files.readAllBytes(file);
+                if (content.length > DIGEST_LENGTH) {
+                    byte[] bytes = Arrays.copyOfRange(content, DIGEST_LENGTH, content.length);
+                    if (MessageDigest.isEqual(Arrays.copyOf(content, DIGEST_LENGTH), digest().digest(bytes))) {
+                        return bytes;
+                    }
+                }
+
+                invalidate(directory, key);
+            }
+        } catch (IOException e) {
+            // treated as a miss.
+        }
+
+        return null;
+    }
+
+    /**
+     * Counts a class that has been defined from the cache.
+     */
+    static void hit() {
+        HITS.incrementAndGet();
+    }
+
+    /**
+     * Counts a class that had to be generated.
+     */
+    static void miss() {
+        MISSES.incrementAndGet();
+    }
+
+    /**
+     * Writes the bytes to a temporary file and moves it into place.
+     * Failing to write is not an error, the class just won't be cached.
+     */
+    static void store(Path directory, String key, byte[] bytes) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+            byte[] content = Arrays.copyOf(digest().digest(bytes), DIGEST_LENGTH + bytes.length);
+            System.arraycopy(bytes, 0, content, DIGEST_LENGTH, bytes.length);
+            Files.write(temp, content);
+            Path file = directory.resolve(key + SUFFIX);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // nothing we can do.
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the file for the given key, because it couldn't be defined.
+     */
+    static void invalidate(Path directory, String key) {
+        try {
+            Files.deleteIfExists(directory.resolve(key + SUFFIX));
+        } catch (IOException e) {
+            // will be overwritten by store.
+        }
+    }
+
+    private static String hashClassFile(Class<?> type) {
+        try (InputStream is = type.getResourceAsStream("/" + type.getName().replace('.', '/') + SUFFIX)) {
+            if (is == null) {
+                return "";
+            }
+
+            MessageDigest digest = digest();
+            byte[] buffer = new byte[4096];
+            for (int read = is.read(buffer); read != -1; read = is.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+
+            return hex(digest.digest());
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform.", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return builder.toString();
+    }
+
+}
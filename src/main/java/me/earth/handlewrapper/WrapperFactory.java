@@ -1,18 +1,28 @@
 package me.earth.handlewrapper;
 
+import me.earth.handlewrapper.wrappers.ArgBuffer;
+import me.earth.handlewrapper.wrappers.ConstantWrapper;
 import me.earth.handlewrapper.wrappers.HandleWrapper;
+import me.earth.handlewrapper.wrappers.OverloadWrapper;
+import me.earth.handlewrapper.wrappers.RetargetableWrapper;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.objectweb.asm.Opcodes.AALOAD;
 import static org.objectweb.asm.Opcodes.ACC_FINAL;
@@ -61,15 +71,22 @@ import static org.objectweb.asm.Opcodes.V1_6;
  *     }
  *
  *     public Object invoke(Object...args) throws Throwable {
- *         return HANDLE.invoke((ExampleClass) args[0], (int) args[1]);
+ *         return HANDLE.invokeExact((ExampleClass) args[0], (int) args[1]);
  *     }
  *
  *     ...
  * }
  * </pre></blockquote>
+ *
+ * The handle is adapted with {@link MethodHandle#asType(MethodType)} to
+ * exactly the type the generated class invokes it with, before the class
+ * is generated. That way no adaptation has to happen per call.
  */
 public class WrapperFactory {
-    private static final AtomicInteger ID = new AtomicInteger();
+    /** Passed instead of an id if the handle comes from the {@link WrapperLoader}. */
+    private static final int NO_ID = -1;
+    private static final String ARG_BUFFER = Type.getInternalName(ArgBuffer.class);
+    private static final String ARG_BUFFER_DESC = Type.getDescriptor(ArgBuffer.class);
 
     private WrapperFactory() {
         throw new AssertionError();
@@ -145,6 +162,55 @@ public class WrapperFactory {
         return wrap(handle, field.getDeclaringClass(), isStatic, void.class, field.getType());
     }
 
+    /**
+     * Wraps a <b>static final</b> field into a {@link ConstantWrapper},
+     * which reads the value once, when it's created, and returns it as a
+     * constant afterwards. Unlike a wrapped getter handle, reading a
+     * primitive with a typed getter costs nothing but the call:
+     *
+     * <blockquote><pre>{@code
+     *      ConstantWrapper wrapper = WrapperFactory.wrapConstant(Config.class.getField("MAX_PLAYERS"));
+     *      int max = wrapper.getInt();
+     *
+     * }</pre></blockquote>
+     *
+     * The declaring class gets initialized. Static final fields can still
+     * be changed with reflection or Unsafe, the wrapper won't notice.
+     *
+     * @param field the static final field, needs to be accessible.
+     * @return a ConstantWrapper for the fields current value.
+     * @throws IllegalArgumentException if the field isn't static and final.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static ConstantWrapper wrapConstant(Field field) throws Throwable {
+        if (!Modifier.isStatic(field.getModifiers()) || !Modifier.isFinal(field.getModifiers())) {
+            throw new IllegalArgumentException("Field " + field.getName() + " is not static final, freeze it with wrapConstant(field, target).");
+        }
+
+        return ConstantFactory.create(field, field.get(null));
+    }
+
+    /**
+     * Freezes the value an instance field has for the given target, e.g.
+     * a singleton whose configuration doesn't change after startup, like
+     * {@link WrapperFactory#wrapConstant(Field)} does for static final fields.
+     * Later changes of the field aren't seen by the wrapper, it has to be
+     * created again.
+     *
+     * @param field the instance field, needs to be accessible.
+     * @param target the object to read the field from.
+     * @return a ConstantWrapper for the fields current value.
+     * @throws IllegalArgumentException if the field is static or target isn't an instance of its class.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static ConstantWrapper wrapConstant(Field field, Object target) throws Throwable {
+        if (Modifier.isStatic(field.getModifiers())) {
+            throw new IllegalArgumentException("Field " + field.getName() + " is static, use wrapConstant(field).");
+        }
+
+        return ConstantFactory.create(field, field.get(target));
+    }
+
     /**
      * Wraps a {@link MethodHandles.Lookup#unreflectConstructor(Constructor)}
      * or similar. Will call the wrap method for following arguments:
@@ -235,29 +301,252 @@ public class WrapperFactory {
      * @throws Throwable so much can go wrong when creating a class with ASM.
      */
     public static HandleWrapper wrap(MethodHandle handle, Class<?> owner, boolean staticOrCtr, Class<?> rType, ClassLoader classLoader, Class<?>...pTypes) throws Throwable {
+        return (HandleWrapper) defineWrapper(handle, owner, staticOrCtr, rType, classLoader, "java/lang/Object", "()V", pTypes).newInstance();
+    }
+
+    /**
+     * Calls {@link WrapperFactory#wrapRetargetable(MethodHandle, Class, boolean, Class, Class[])}
+     * for the methods declaring class, return and parameter types.
+     */
+    public static RetargetableWrapper wrapRetargetable(MethodHandle handle, Method method) throws Throwable {
+        return wrapRetargetable(handle, method.getDeclaringClass(), Modifier.isStatic(method.getModifiers()), method.getReturnType(), method.getParameterTypes());
+    }
+
+    /**
+     * Wraps a {@link MethodHandle} into a {@link RetargetableWrapper}.
+     * The generated class holds the {@link MutableCallSite#dynamicInvoker()}
+     * of a MutableCallSite as its <b>static final</b> HANDLE, so the JIT
+     * treats the current target as a constant and only deoptimizes when
+     * {@link RetargetableWrapper#retarget(MethodHandle)} is called.
+     * Arguments are the same as for
+     * {@link WrapperFactory#wrap(MethodHandle, Class, boolean, Class, Class[])}.
+     *
+     * @return a RetargetableWrapper, initially targeting the given handle.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static RetargetableWrapper wrapRetargetable(MethodHandle handle, Class<?> owner, boolean staticOrCtr, Class<?> rType, Class<?>...pTypes) throws Throwable {
+        MutableCallSite callSite = new MutableCallSite(adapt(handle, owner, staticOrCtr, rType, pTypes));
+        String ctrDescriptor = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(MutableCallSite.class));
+        Class<?> wrapperClass = defineWrapper(callSite.dynamicInvoker(), owner, staticOrCtr, rType, owner.getClassLoader(), Type.getInternalName(RetargetableWrapper.class), ctrDescriptor, pTypes);
+        return (RetargetableWrapper) wrapperClass.getConstructor(MutableCallSite.class).newInstance(callSite);
+    }
+
+    private static Class<?> defineWrapper(MethodHandle handle, Class<?> owner, boolean staticOrCtr, Class<?> rType, ClassLoader classLoader, String superName, String ctrDescriptor, Class<?>...pTypes) throws Throwable {
+        handle = adapt(handle, owner, staticOrCtr, rType, pTypes);
+        Path directory = WrapperCache.getDirectory();
+        String key = directory == null ? null : WrapperCache.key(owner, staticOrCtr, rType, superName, ctrDescriptor, pTypes);
+        if (key == null) {
+            int id = Handles.nextId();
+            String name = getName(owner, staticOrCtr, rType, pTypes) + id;
+            while (Util.exists(name)) {
+                name = name + id;
+            }
+
+            byte[] bytes = generateWrapper(name, id, owner, staticOrCtr, rType, superName, ctrDescriptor, pTypes);
+            return Util.define(bytes, name, classLoader, new int[]{id}, handle);
+        }
+
+        // the name has to be the same on every start, each class gets its own WrapperLoader anyways.
+        String name = getName(owner, staticOrCtr, rType, pTypes) + "_" + key.substring(0, 16);
+        byte[] bytes = WrapperCache.load(directory, key);
+        if (bytes != null) {
+            try {
+                Class<?> wrapperClass = Util.define(bytes, name, classLoader, handle);
+                WrapperCache.hit();
+                return wrapperClass;
+            } catch (LinkageError e) {
+                WrapperCache.invalidate(directory, key);
+            }
+        }
+
+        WrapperCache.miss();
+        bytes = generateWrapper(name, NO_ID, owner, staticOrCtr, rType, superName, ctrDescriptor, pTypes);
+        WrapperCache.store(directory, key, bytes);
+        return Util.define(bytes, name, classLoader, handle);
+    }
+
+    /**
+     * Adapts the handle to the type the generated class invokes it with.
+     * Types that aren't public can't be referenced by the generated class,
+     * they are passed as Objects.
+     *
+     * @throws IllegalArgumentException if the handle can't be adapted.
+     */
+    static MethodHandle adapt(MethodHandle handle, Class<?> owner, boolean staticOrCtr, Class<?> rType, Class<?>...pTypes) {
+        MethodType type = type(owner, staticOrCtr, rType, pTypes);
+        try {
+            return handle.asType(type);
+        } catch (WrongMethodTypeException e) {
+            throw new IllegalArgumentException("Handle of type " + handle.type() + " can't be adapted to " + type + ".", e);
+        }
+    }
+
+    /**
+     * @return the type a generated wrapper invokes its handle with,
+     *         types that aren't public are erased to Object.
+     */
+    static MethodType type(Class<?> owner, boolean staticOrCtr, Class<?> rType, Class<?>...pTypes) {
+        MethodType type = MethodType.methodType(Util.eraseType(rType), Util.eraseTypes(pTypes));
+        return staticOrCtr ? type : type.insertParameterTypes(0, Util.eraseType(owner));
+    }
+
+    /**
+     * Generates the bytes of a HandleWrapper class. If the id is
+     * {@link WrapperFactory#NO_ID} the static initializer gets the
+     * MethodHandle from the {@link WrapperLoader} of the class, so
+     * the bytes don't depend on anything but the signature.
+     */
+    private static byte[] generateWrapper(String name, int id, Class<?> owner, boolean staticOrCtr, Class<?> rType, String superName, String ctrDescriptor, Class<?>...pTypes) {
         ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-        int id = ID.incrementAndGet();
-        String[] nameAndDescr = begin(cw, id, owner, staticOrCtr, rType, pTypes, Type.getInternalName(HandleWrapper.class));
-        String name = nameAndDescr[0];
-        String description = nameAndDescr[1];
+        String description = begin(cw, name, superName, Type.getInternalName(HandleWrapper.class));
 
-        initAndClinit(cw, id, description);
+        initAndClinit(cw, id, description, superName, ctrDescriptor);
 
         MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_VARARGS, "invoke", "([Ljava/lang/Object;)Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
-        buildHandleMethod("invoke", description, mv, owner, rType, staticOrCtr, pTypes);
+        buildHandleMethod(description, mv, owner, rType, staticOrCtr, pTypes);
 
         mv = cw.visitMethod(ACC_PUBLIC | ACC_VARARGS, "invokeExact", "([Ljava/lang/Object;)Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
-        buildHandleMethod("invokeExact", description, mv, owner, rType, staticOrCtr, pTypes);
+        buildHandleMethod(description, mv, owner, rType, staticOrCtr, pTypes);
+
+        mv = cw.visitMethod(ACC_PUBLIC, "invokeBuffer", "(" + ARG_BUFFER_DESC + ")V", null, new String[]{"java/lang/Throwable"});
+        buildBufferMethod(description, mv, owner, rType, staticOrCtr, pTypes);
 
         cw.visitEnd();
-        Handles.add(id, handle);
+        return cw.toByteArray();
+    }
 
-        try {
-            Class<?> wrapperClass = new WrapperLoader(classLoader).define(name, cw.toByteArray());
-            return (HandleWrapper) wrapperClass.newInstance();
-        } finally {
-            Handles.del(id);
+    /**
+     * Calls {@link WrapperFactory#wrapTiered(MethodHandle, Class, boolean, Class, int, Executor, Class[])}
+     * for the methods declaring class, return and parameter types and the default Executor,
+     * which generates the wrapper classes on a low priority daemon thread.
+     */
+    public static TieredWrapper wrapTiered(MethodHandle handle, Method method, int threshold) {
+        return wrapTiered(handle, method.getDeclaringClass(), Modifier.isStatic(method.getModifiers()), method.getReturnType(), threshold, TieredWrapper.defaultExecutor(), method.getParameterTypes());
+    }
+
+    /**
+     * Wraps a {@link MethodHandle} into a {@link TieredWrapper}, which calls
+     * the handle directly at first and creates the HandleWrapper class
+     * with {@link WrapperFactory#wrap(MethodHandle, Class, boolean, Class, Class[])}
+     * only after it has been invoked <tt>threshold</tt> times. Members that
+     * are rarely called then never pay the cost of generating a class.
+     *
+     * @param handle the MethodHandle to wrap.
+     * @param owner the owner of the target of the handle.
+     * @param staticOrCtr if the target is static or a constructor.
+     * @param rType the returnType of the handle.
+     * @param threshold amount of invocations after which the class
+     *                  should be generated, 0 to generate it right away.
+     * @param executor the executor to generate the class on.
+     * @param pTypes the parameterTypes of the handle
+     *               (shouldn't include the target class).
+     * @return a TieredWrapper for the given handle.
+     * @throws IllegalArgumentException if the handle can't be adapted to the given types.
+     */
+    public static TieredWrapper wrapTiered(MethodHandle handle, Class<?> owner, boolean staticOrCtr, Class<?> rType, int threshold, Executor executor, Class<?>...pTypes) {
+        TieredWrapper wrapper = new TieredWrapper(adapt(handle, owner, staticOrCtr, rType, pTypes), owner, staticOrCtr, rType, threshold, executor, pTypes);
+        if (threshold <= 0) { // only once it has been constructed, the executor might run on another thread
+            wrapper.schedule();
         }
+
+        return wrapper;
+    }
+
+    /**
+     * Calls {@link WrapperFactory#wrapMemoized(MethodHandle, Class, boolean, Class, int, long, TimeUnit, MemoizingWrapper.Eviction, Class[])}
+     * for the methods declaring class, return and parameter types, with
+     * TinyLFU eviction and results that don't expire.
+     */
+    public static MemoizingWrapper wrapMemoized(MethodHandle handle, Method method, int maximumSize) throws Throwable {
+        return wrapMemoized(handle, method.getDeclaringClass(), Modifier.isStatic(method.getModifiers()), method.getReturnType(), maximumSize, 0, TimeUnit.NANOSECONDS, MemoizingWrapper.Eviction.TINY_LFU, method.getParameterTypes());
+    }
+
+    /**
+     * Wraps a {@link MethodHandle} into a {@link MemoizingWrapper}, which
+     * caches the results of the HandleWrapper created by
+     * {@link WrapperFactory#wrap(MethodHandle, Class, boolean, Class, Class[])}.
+     * Only use this for members whose result depends on nothing but their
+     * arguments, and whose arguments aren't mutated while they're cached.
+     *
+     * @param handle the MethodHandle to wrap.
+     * @param owner the owner of the target of the handle.
+     * @param staticOrCtr if the target is static or a constructor.
+     * @param rType the returnType of the handle.
+     * @param maximumSize the maximum amount of cached results.
+     * @param expireAfterWrite how long results are cached, 0 for forever.
+     * @param unit the unit of expireAfterWrite.
+     * @param eviction how to make room when the cache is full.
+     * @param pTypes the parameterTypes of the handle
+     *               (shouldn't include the target class).
+     * @return a MemoizingWrapper for the given handle.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static MemoizingWrapper wrapMemoized(MethodHandle handle, Class<?> owner, boolean staticOrCtr, Class<?> rType, int maximumSize, long expireAfterWrite, TimeUnit unit, MemoizingWrapper.Eviction eviction, Class<?>...pTypes) throws Throwable {
+        return new MemoizingWrapper(wrap(handle, owner, staticOrCtr, rType, pTypes), type(owner, staticOrCtr, rType, pTypes), maximumSize, expireAfterWrite, unit, eviction);
+    }
+
+    /**
+     * Wraps all overloads of a method into one {@link OverloadWrapper},
+     * which calls the most specific overload for the runtime classes of
+     * the arguments, instead of looking up a HandleWrapper per class:
+     *
+     * <blockquote><pre>{@code
+     *      public class PacketHandler {
+     *          public void handle(LoginPacket packet) { ... }
+     *          public void handle(ChatPacket packet) { ... }
+     *          public void handle(Packet packet) { ... }
+     *      }
+     *
+     *      OverloadWrapper wrapper = WrapperFactory.wrapOverloads(PacketHandler.class, "handle");
+     *      wrapper.invoke(handler, packet); // handle(ChatPacket) for a ChatPacket
+     *
+     * }</pre></blockquote>
+     *
+     * An overload is applicable if the amount of arguments matches and
+     * every argument is an instance of its parameter type, null for
+     * reference types, or the box of a primitive parameter type. There is
+     * no widening, unboxing or varargs expansion like the compiler does.
+     * Primitive parameters are more specific than references accepting
+     * their box. If several overloads are applicable and neither is more
+     * specific, either one is called.
+     *
+     * @param owner the class declaring or inheriting the methods.
+     * @param name the name of the methods.
+     * @return an OverloadWrapper for all methods with the given name.
+     * @throws IllegalArgumentException if there are no such methods,
+     *                                  or static and instance methods are mixed.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static OverloadWrapper wrapOverloads(Class<?> owner, String name) throws Throwable {
+        return OverloadFactory.create(owner, name);
+    }
+
+    /**
+     * Calls {@link WrapperFactory#wrapIntercepted(MethodHandle, Class, boolean, Class, List, Class[])}
+     * for the methods declaring class, return and parameter types.
+     */
+    public static HandleWrapper wrapIntercepted(MethodHandle handle, Method method, List<Interceptor> interceptors) throws Throwable {
+        return wrapIntercepted(handle, method.getDeclaringClass(), Modifier.isStatic(method.getModifiers()), method.getReturnType(), interceptors, method.getParameterTypes());
+    }
+
+    /**
+     * Fuses the interceptors into the handle with {@link Interceptor#chain(MethodHandle, List)}
+     * and wraps the result with {@link WrapperFactory#wrap(MethodHandle, Class, boolean, Class, Class[])},
+     * so the advice is called from the same <b>static final</b> handle
+     * as the target, without a wrapper per advice.
+     *
+     * @param handle the MethodHandle to wrap.
+     * @param owner the owner of the target of the handle.
+     * @param staticOrCtr if the target is static or a constructor.
+     * @param rType the returnType of the handle.
+     * @param interceptors the interceptors, outermost first.
+     * @param pTypes the parameterTypes of the handle
+     *               (shouldn't include the target class).
+     * @return a HandleWrapper for the intercepted handle.
+     * @throws Throwable so much can go wrong when creating a class with ASM.
+     */
+    public static HandleWrapper wrapIntercepted(MethodHandle handle, Class<?> owner, boolean staticOrCtr, Class<?> rType, List<Interceptor> interceptors, Class<?>...pTypes) throws Throwable {
+        return wrap(Interceptor.chain(handle, interceptors), owner, staticOrCtr, rType, pTypes);
     }
 
     /**
@@ -309,12 +598,15 @@ public class WrapperFactory {
         }
 
         ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-        int id = ID.incrementAndGet();
-        String[] nameAndDescr = begin(cw, id, around, false, null, new Class<?>[]{}, Type.getInternalName(around));
-        String name = nameAndDescr[0];
-        String description = nameAndDescr[1];
+        int id = Handles.nextId();
+        String name = getName(around, false, null) + id;
+        while (Util.exists(name)) {
+            name = name + id;
+        }
+
+        String description = begin(cw, name, "java/lang/Object", Type.getInternalName(around));
 
-        initAndClinit(cw, id, description);
+        initAndClinit(cw, id, description, "java/lang/Object", "()V");
         for (Map.Entry<Method, Method> entry : links.entrySet()) {
             link(cw, entry.getKey(), entry.getValue(), description);
         }
@@ -323,7 +615,7 @@ public class WrapperFactory {
         Handles.add(id, handle);
 
         try {
-            Class<?> wrapperClass = new WrapperLoader(around.getClassLoader()).define(name, cw.toByteArray());
+            Class<?> wrapperClass = new WrapperLoader(Util.parent(around.getClassLoader())).define(name, cw.toByteArray());
             return (T) wrapperClass.newInstance();
         } finally {
             Handles.del(id);
@@ -357,44 +649,42 @@ public class WrapperFactory {
         mv.visitEnd();
     }
 
-    private static String[] begin(ClassWriter cw, int id, Class<?> owner, boolean staticOrCtr, Class<?> rType, Class<?>[] pTypes, String...interfaces) {
-        String name = getName(id, owner, staticOrCtr, rType, pTypes);
-        while (Util.exists(name)) {
-            name = name + id;
-        }
-
+    private static String begin(ClassWriter cw, String name, String superName, String...interfaces) {
         String description = name.replace(".", "/");
 
         // Create Implementation of MethodWrapper.
-        cw.visit(V1_6, ACC_PUBLIC | ACC_SUPER, description, null, "java/lang/Object", interfaces);
+        cw.visit(V1_6, ACC_PUBLIC | ACC_SUPER, description, null, superName, interfaces);
         // Create private static final MethodHandle field.
         cw.visitField(ACC_PRIVATE | ACC_FINAL | ACC_STATIC, "HANDLE", "Ljava/lang/invoke/MethodHandle;", null, null).visitEnd();
 
-        return new String[]{name, description};
+        return description;
     }
 
-    private static void initAndClinit(ClassWriter cw, int id, String description) {
+    private static void initAndClinit(ClassWriter cw, int id, String description, String superName, String ctrDescriptor) {
         // Static Initializer
         MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
         mv.visitCode();
-        mv.visitLdcInsn(id);
-        mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(Handles.class), "getHandle", "(I)Ljava/lang/invoke/MethodHandle;", false);
+        if (id == NO_ID) {
+            mv.visitLdcInsn(Type.getObjectType(description));
+            mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(Handles.class), "getHandle", "(Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", false);
+        } else {
+            mv.visitLdcInsn(id);
+            mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(Handles.class), "getHandle", "(I)Ljava/lang/invoke/MethodHandle;", false);
+        }
+
         mv.visitFieldInsn(PUTSTATIC, description, "HANDLE", "Ljava/lang/invoke/MethodHandle;");
         mv.visitInsn(RETURN);
         mv.visitMaxs(0, 0);
         mv.visitEnd();
 
-        // Default Ctr
-        mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
-        mv.visitCode();
-        mv.visitVarInsn(ALOAD, 0);
-        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
-        mv.visitInsn(RETURN);
-        mv.visitMaxs(1, 1);
-        mv.visitEnd();
+        // Ctr, passes its arguments to the super constructor
+        Util.constructor(cw, superName, ctrDescriptor);
     }
 
-    private static void buildHandleMethod(String name, String description, MethodVisitor mv, Class<?> owner, Class<?> rType, boolean staticOrCtr, Class<?>...pTypes) {
+    private static void buildHandleMethod(String description, MethodVisitor mv, Class<?> owner, Class<?> rType, boolean staticOrCtr, Class<?>...pTypes) {
+        owner = Util.eraseType(owner);
+        rType = Util.eraseType(rType);
+        pTypes = Util.eraseTypes(pTypes);
         mv.visitCode();
         mv.visitFieldInsn(GETSTATIC, description, "HANDLE", "Ljava/lang/invoke/MethodHandle;");
 
@@ -412,24 +702,81 @@ public class WrapperFactory {
             Util.unbox(Type.getType(pTypes[i]), mv);
         }
 
-        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", name, Util.buildHandleSignature(staticOrCtr, owner, rType, pTypes), false);
+        // the handle has been adapted to exactly this type.
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", Util.buildHandleSignature(staticOrCtr, owner, rType, pTypes), false);
         Util.box(Type.getType(rType), mv);
         mv.visitInsn(ARETURN);
         mv.visitMaxs(0, 0);
         mv.visitEnd();
     }
 
-    private static String getName(int id, Class<?> owner, boolean staticOrCtr, Class<?> rType, Class<?>...pTypes) {
+    /**
+     * Builds <tt>void invokeBuffer(ArgBuffer args)</tt>, which checks the amount
+     * of arguments, reads every argument with the typed getter of its slot,
+     * e.g. <tt>args.intAt(1)</tt>, and stores the result with the typed setter,
+     * e.g. <tt>args.setInt(result)</tt>.
+     */
+    private static void buildBufferMethod(String description, MethodVisitor mv, Class<?> owner, Class<?> rType, boolean staticOrCtr, Class<?>...pTypes) {
+        owner = Util.eraseType(owner);
+        rType = Util.eraseType(rType);
+        pTypes = Util.eraseTypes(pTypes);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitLdcInsn(staticOrCtr ? pTypes.length : pTypes.length + 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, ARG_BUFFER, "checkSize", "(I)V", false);
+        mv.visitVarInsn(ALOAD, 1); // for the result setter
+        mv.visitFieldInsn(GETSTATIC, description, "HANDLE", "Ljava/lang/invoke/MethodHandle;");
+        int slot = 0;
+        if (!staticOrCtr) {
+            loadSlot(mv, slot++, owner);
+        }
+
+        for (Class<?> pType : pTypes) {
+            loadSlot(mv, slot++, pType);
+        }
+
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", Util.buildHandleSignature(staticOrCtr, owner, rType, pTypes), false);
+        if (rType == void.class) {
+            mv.visitMethodInsn(INVOKEVIRTUAL, ARG_BUFFER, "setVoid", "()V", false);
+        } else if (rType.isPrimitive()) {
+            String name = rType.getName();
+            mv.visitMethodInsn(INVOKEVIRTUAL, ARG_BUFFER, "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1), "(" + Type.getDescriptor(rType) + ")V", false);
+        } else {
+            mv.visitMethodInsn(INVOKEVIRTUAL, ARG_BUFFER, "setRef", "(Ljava/lang/Object;)V", false);
+        }
+
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void loadSlot(MethodVisitor mv, int slot, Class<?> type) {
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitLdcInsn(slot);
+        if (type.isPrimitive()) {
+            mv.visitMethodInsn(INVOKEVIRTUAL, ARG_BUFFER, type.getName() + "At", "(I)" + Type.getDescriptor(type), false);
+        } else {
+            mv.visitMethodInsn(INVOKEVIRTUAL, ARG_BUFFER, "refAt", "(I)Ljava/lang/Object;", false);
+            mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+        }
+    }
+
+    private static String getName(Class<?> owner, boolean staticOrCtr, Class<?> rType, Class<?>...pTypes) {
         StringBuilder builder = new StringBuilder(owner.getName());
         if (staticOrCtr) {
             builder.append("_static");
         }
 
         for (Class<?> pType : pTypes) {
-            builder.append("_").append(pType.getSimpleName());
+            builder.append("_").append(simpleName(pType));
         }
 
-        return builder.append("_").append(rType == null ? "" : rType.getSimpleName()).append(id).toString();
+        return Util.generatedName(builder.append("_").append(rType == null ? "" : simpleName(rType)).toString());
+    }
+
+    // '[' isn't allowed in class names.
+    private static String simpleName(Class<?> type) {
+        return type.getSimpleName().replace("[]", "Array");
     }
 
 }
@@ -1,12 +1,35 @@
 package me.earth.handlewrapper;
 
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.atomic.AtomicReference;
+
 final class WrapperLoader extends ClassLoader {
+    private final AtomicReference<MethodHandle> handle;
+
     public WrapperLoader(ClassLoader parent) {
+        this(parent, null);
+    }
+
+    /**
+     * @param handle the handle for {@link Handles#getHandle(Class)}.
+     */
+    public WrapperLoader(ClassLoader parent, MethodHandle handle) {
         super(parent);
+        this.handle = new AtomicReference<>(handle);
     }
 
     public Class<?> define(String name, byte[] data) {
         return defineClass(name, data, 0, data.length);
     }
 
+    /**
+     * The handle is only needed by the static initializer, like ids are
+     * removed from the {@link Handles} it can only be taken once.
+     *
+     * @return the handle, <tt>null</tt> if it has been taken already.
+     */
+    public MethodHandle takeHandle() {
+        return handle.getAndSet(null);
+    }
+
 }
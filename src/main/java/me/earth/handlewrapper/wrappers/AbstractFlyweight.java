@@ -0,0 +1,62 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.FlyweightFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The superclass of all classes generated by the {@link FlyweightFactory}.
+ * Generated getters and setters use the absolute methods of the buffer,
+ * e.g. <tt>buffer.getInt(base + offset)</tt>, so its position isn't used.
+ */
+public abstract class AbstractFlyweight implements Flyweight {
+    private final int size;
+    protected ByteBuffer buffer;
+    protected int base;
+
+    protected AbstractFlyweight(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public void wrap(ByteBuffer buffer, int base) {
+        this.buffer = buffer;
+        this.base = base;
+    }
+
+    @Override
+    public void moveTo(int base) {
+        this.base = base;
+    }
+
+    @Override
+    public void moveToRecord(int index) {
+        this.base = index * size;
+    }
+
+    @Override
+    public int getBase() {
+        return base;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return buffer == null ? 0 : buffer.limit() / size;
+    }
+
+    @Override
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(base=" + base + ", size=" + size + ")";
+    }
+
+}
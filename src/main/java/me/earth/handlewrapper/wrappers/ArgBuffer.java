@@ -0,0 +1,447 @@
+package me.earth.handlewrapper.wrappers;
+
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/**
+ * Reusable arguments for {@link HandleWrapper#invokeBuffer(ArgBuffer)}, which
+ * calls the handle without allocating a varargs array or boxing
+ * primitives. Arguments are put into consecutive slots, the target of
+ * an instance method first, and the result can be read with the typed
+ * getters afterwards:
+ *
+ * <blockquote><pre>{@code
+ *      ArgBuffer buffer = new ArgBuffer();
+ *      buffer.clear().putRef(target).putInt(5).putDouble(2.5);
+ *      wrapper.invokeBuffer(buffer);
+ *      double result = buffer.getDouble();
+ * }</pre></blockquote>
+ *
+ * Slots are read by the type they've been put with, there are no
+ * conversions: every slot has to hold exactly the declared parameter type,
+ * a reference for reference types, and the result is stored as the declared
+ * return type, e.g. as a reference for a method returning Integer. A buffer isn't thread safe, it should be confined to
+ * one thread, e.g. with a {@link ThreadLocal}.
+ */
+public final class ArgBuffer {
+    private static final byte VOID = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte BYTE = 2;
+    private static final byte CHAR = 3;
+    private static final byte SHORT = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte REF = 9;
+
+    private long[] primitives;
+    private Object[] refs;
+    private byte[] kinds;
+    private int size;
+
+    private long primitiveResult;
+    private Object refResult;
+    private byte resultKind;
+
+    public ArgBuffer() {
+        this(8);
+    }
+
+    public ArgBuffer(int capacity) {
+        this.primitives = new long[capacity];
+        this.refs = new Object[capacity];
+        this.kinds = new byte[capacity];
+    }
+
+    /**
+     * Removes all arguments and the result.
+     *
+     * @return this buffer.
+     */
+    public ArgBuffer clear() {
+        Arrays.fill(refs, 0, size, null);
+        size = 0;
+        setVoid();
+        return this;
+    }
+
+    /**
+     * @return the amount of arguments in this buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    public ArgBuffer putBoolean(boolean value) {
+        return put(BOOLEAN, value ? 1 : 0);
+    }
+
+    public ArgBuffer putByte(byte value) {
+        return put(BYTE, value);
+    }
+
+    public ArgBuffer putChar(char value) {
+        return put(CHAR, value);
+    }
+
+    public ArgBuffer putShort(short value) {
+        return put(SHORT, value);
+    }
+
+    public ArgBuffer putInt(int value) {
+        return put(INT, value);
+    }
+
+    public ArgBuffer putLong(long value) {
+        return put(LONG, value);
+    }
+
+    public ArgBuffer putFloat(float value) {
+        return put(FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    public ArgBuffer putDouble(double value) {
+        return put(DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    public ArgBuffer putRef(Object value) {
+        int slot = next(REF);
+        refs[slot] = value;
+        return this;
+    }
+
+    public boolean booleanAt(int slot) {
+        return check(slot, BOOLEAN) != 0;
+    }
+
+    public byte byteAt(int slot) {
+        return (byte) check(slot, BYTE);
+    }
+
+    public char charAt(int slot) {
+        return (char) check(slot, CHAR);
+    }
+
+    public short shortAt(int slot) {
+        return (short) check(slot, SHORT);
+    }
+
+    public int intAt(int slot) {
+        return (int) check(slot, INT);
+    }
+
+    public long longAt(int slot) {
+        return check(slot, LONG);
+    }
+
+    public float floatAt(int slot) {
+        return Float.intBitsToFloat((int) check(slot, FLOAT));
+    }
+
+    public double doubleAt(int slot) {
+        return Double.longBitsToDouble(check(slot, DOUBLE));
+    }
+
+    public Object refAt(int slot) {
+        if (slot >= size || kinds[slot] != REF) {
+            throw badSlot(slot, REF);
+        }
+
+        return refs[slot];
+    }
+
+    /**
+     * @return the argument in the given slot, boxed if it's primitive.
+     */
+    public Object get(int slot) {
+        if (slot >= size) {
+            throw badSlot(slot, REF);
+        }
+
+        return box(kinds[slot], primitives[slot], refs[slot]);
+    }
+
+    public boolean getBoolean() {
+        return result(BOOLEAN) != 0;
+    }
+
+    public byte getByte() {
+        return (byte) result(BYTE);
+    }
+
+    public char getChar() {
+        return (char) result(CHAR);
+    }
+
+    public short getShort() {
+        return (short) result(SHORT);
+    }
+
+    public int getInt() {
+        return (int) result(INT);
+    }
+
+    public long getLong() {
+        return result(LONG);
+    }
+
+    public float getFloat() {
+        return Float.intBitsToFloat((int) result(FLOAT));
+    }
+
+    public double getDouble() {
+        return Double.longBitsToDouble(result(DOUBLE));
+    }
+
+    /**
+     * @return the result, boxed if it's primitive, <tt>null</tt> for void.
+     */
+    public Object getRef() {
+        return box(resultKind, primitiveResult, refResult);
+    }
+
+    /** Called by generated wrappers with the result, also the following setters. */
+    public void setBoolean(boolean value) {
+        setResult(BOOLEAN, value ? 1 : 0);
+    }
+
+    public void setByte(byte value) {
+        setResult(BYTE, value);
+    }
+
+    public void setChar(char value) {
+        setResult(CHAR, value);
+    }
+
+    public void setShort(short value) {
+        setResult(SHORT, value);
+    }
+
+    public void setInt(int value) {
+        setResult(INT, value);
+    }
+
+    public void setLong(long value) {
+        setResult(LONG, value);
+    }
+
+    public void setFloat(float value) {
+        setResult(FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    public void setDouble(double value) {
+        setResult(DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    public void setRef(Object value) {
+        refResult = value;
+        resultKind = REF;
+    }
+
+    public void setVoid() {
+        refResult = null;
+        resultKind = VOID;
+    }
+
+    /**
+     * Sets the result of {@link HandleWrapper#invoke(Object...)}, boxes
+     * are stored as their primitive.
+     */
+    public void setBoxed(Object value) {
+        if (value instanceof Integer) {
+            setInt((Integer) value);
+        } else if (value instanceof Long) {
+            setLong((Long) value);
+        } else if (value instanceof Double) {
+            setDouble((Double) value);
+        } else if (value instanceof Float) {
+            setFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            setBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            setByte((Byte) value);
+        } else if (value instanceof Character) {
+            setChar((Character) value);
+        } else if (value instanceof Short) {
+            setShort((Short) value);
+        } else {
+            setRef(value);
+        }
+    }
+
+    /**
+     * Checks the slots against the parameter types of the given type, like
+     * generated wrappers do, and returns them boxed for {@link HandleWrapper#invoke(Object...)}.
+     *
+     * @throws IllegalArgumentException if a slot doesn't hold its parameter type
+     *                                  or the amount of arguments is wrong.
+     */
+    public Object[] toArray(MethodType type) {
+        checkSize(type.parameterCount());
+        Object[] result = new Object[size];
+        for (int i = 0; i < size; i++) {
+            byte kind = kind(type.parameterType(i));
+            if (kinds[i] != kind) {
+                throw badSlot(i, kind);
+            }
+
+            result[i] = box(kind, primitives[i], refs[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Stores a boxed result as the given return type, the way a
+     * generated wrapper stores the result of a handle of that type.
+     */
+    public void setResult(Class<?> type, Object value) {
+        switch (kind(type)) {
+            case BOOLEAN: setBoolean((Boolean) value); break;
+            case BYTE: setByte((Byte) value); break;
+            case CHAR: setChar((Character) value); break;
+            case SHORT: setShort((Short) value); break;
+            case INT: setInt((Integer) value); break;
+            case LONG: setLong((Long) value); break;
+            case FLOAT: setFloat((Float) value); break;
+            case DOUBLE: setDouble((Double) value); break;
+            case REF: setRef(value); break;
+            default: setVoid();
+        }
+    }
+
+    /**
+     * Called by generated wrappers before reading the slots.
+     *
+     * @throws IllegalArgumentException if the buffer doesn't hold the given amount of arguments.
+     */
+    public void checkSize(int parameters) {
+        if (size != parameters) {
+            throw new IllegalArgumentException("The buffer holds " + size + " arguments, expected: " + parameters + ".");
+        }
+    }
+
+    /**
+     * @return the arguments, boxed, for {@link HandleWrapper#invoke(Object...)}.
+     */
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = get(i);
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ArgBuffer" + Arrays.toString(toArray());
+    }
+
+    private ArgBuffer put(byte kind, long value) {
+        primitives[next(kind)] = value;
+        return this;
+    }
+
+    private int next(byte kind) {
+        if (size == kinds.length) {
+            int capacity = Math.max(8, size * 2);
+            primitives = Arrays.copyOf(primitives, capacity);
+            refs = Arrays.copyOf(refs, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+        }
+
+        kinds[size] = kind;
+        return size++;
+    }
+
+    private long check(int slot, byte kind) {
+        if (slot >= size || kinds[slot] != kind) {
+            throw badSlot(slot, kind);
+        }
+
+        return primitives[slot];
+    }
+
+    private long result(byte kind) {
+        if (resultKind != kind) {
+            throw badResult(kind);
+        }
+
+        return primitiveResult;
+    }
+
+    private void setResult(byte kind, long value) {
+        primitiveResult = value;
+        refResult = null;
+        resultKind = kind;
+    }
+
+    private IllegalArgumentException badSlot(int slot, byte kind) {
+        if (slot >= size) {
+            return new IllegalArgumentException("Slot " + slot + " is empty, the buffer holds " + size + " arguments.");
+        }
+
+        return new IllegalArgumentException("Slot " + slot + " holds a " + name(kinds[slot]) + ", not a " + name(kind) + ".");
+    }
+
+    private IllegalStateException badResult(byte kind) {
+        return new IllegalStateException("The result is a " + name(resultKind) + ", not a " + name(kind) + ".");
+    }
+
+    private static Object box(byte kind, long value, Object ref) {
+        switch (kind) {
+            case BOOLEAN: return value != 0;
+            case BYTE: return (byte) value;
+            case CHAR: return (char) value;
+            case SHORT: return (short) value;
+            case INT: return (int) value;
+            case LONG: return value;
+            case FLOAT: return Float.intBitsToFloat((int) value);
+            case DOUBLE: return Double.longBitsToDouble(value);
+            case REF: return ref;
+            default: return null;
+        }
+    }
+
+    private static byte kind(Class<?> type) {
+        if (type == void.class) {
+            return VOID;
+        } else if (!type.isPrimitive()) {
+            return REF;
+        } else if (type == int.class) {
+            return INT;
+        } else if (type == long.class) {
+            return LONG;
+        } else if (type == double.class) {
+            return DOUBLE;
+        } else if (type == float.class) {
+            return FLOAT;
+        } else if (type == boolean.class) {
+            return BOOLEAN;
+        } else if (type == byte.class) {
+            return BYTE;
+        } else if (type == char.class) {
+            return CHAR;
+        }
+
+        return SHORT;
+    }
+
+    private static String name(byte kind) {
+        switch (kind) {
+            case BOOLEAN: return "boolean";
+            case BYTE: return "byte";
+            case CHAR: return "char";
+            case SHORT: return "short";
+            case INT: return "int";
+            case LONG: return "long";
+            case FLOAT: return "float";
+            case DOUBLE: return "double";
+            case REF: return "reference";
+            default: return "void";
+        }
+    }
+
+}
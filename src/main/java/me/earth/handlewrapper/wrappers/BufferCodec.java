@@ -0,0 +1,61 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.CodecFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes objects to and reads them from a {@link ByteBuffer}.
+ * Implementations are generated by the {@link CodecFactory},
+ * they access the fields through <b>static final</b> MethodHandles
+ * and put and get primitives without boxing them. Heap and direct
+ * buffers are supported, the buffers byte order is used.
+ */
+public abstract class BufferCodec {
+    /**
+     * Writes the fields of the given object into the buffer,
+     * starting at its current position.
+     *
+     * @param object the object to write.
+     * @param buffer the buffer to write to.
+     */
+    public abstract void write(Object object, ByteBuffer buffer) throws Throwable;
+
+    /**
+     * Creates a new object and reads its fields from the buffer,
+     * starting at its current position.
+     *
+     * @param buffer the buffer to read from.
+     * @return the new object.
+     */
+    public abstract Object read(ByteBuffer buffer) throws Throwable;
+
+    /**
+     * Called by generated code to write a String as its length in
+     * UTF-8 bytes, or -1 for null, followed by the bytes.
+     */
+    protected static void writeString(ByteBuffer buffer, String string) {
+        if (string == null) {
+            buffer.putInt(-1);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /** Called by generated code to read a String written by {@link BufferCodec#writeString(ByteBuffer, String)}. */
+    protected static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,158 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.ClassAccessFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gives index based access to all fields, methods and constructors
+ * of a class. Implementations are generated by the
+ * {@link ClassAccessFactory}, one class per target class, which
+ * holds every handle as a <b>static final</b> field and selects
+ * it with a <tt>tableswitch</tt>.
+ * <p>
+ * <p>Indices should be looked up once, e.g. with
+ * {@link ClassAccess#fieldIndex(String)}, and then reused:
+ * <blockquote><pre>{@code
+ *      ClassAccess access = ClassAccessFactory.create(SomeClass.class);
+ *      int foo = access.fieldIndex("foo");
+ *      access.set(foo, target, 10);
+ *      int value = (int) access.get(foo, target);
+ * }</pre></blockquote>
+ * For static members the target is ignored and can be <tt>null</tt>.
+ */
+public abstract class ClassAccess {
+    private final Map<String, Integer> fieldIndices = new HashMap<>();
+    private final Map<String, Integer> methodIndices = new HashMap<>();
+    private final Map<String, Integer> methodSignatures = new HashMap<>();
+    private final Map<String, Integer> constructorSignatures = new HashMap<>();
+    private final Field[] fields;
+    private final Method[] methods;
+    private final Constructor<?>[] constructors;
+
+    protected ClassAccess(Field[] fields, Method[] methods, Constructor<?>[] constructors) {
+        this.fields = fields;
+        this.methods = methods;
+        this.constructors = constructors;
+        for (int i = 0; i < fields.length; i++) {
+            // fields of the class itself come first and hide those of superclasses.
+            fieldIndices.putIfAbsent(fields[i].getName(), i);
+        }
+
+        for (int i = 0; i < methods.length; i++) {
+            methodIndices.putIfAbsent(methods[i].getName(), i);
+            methodSignatures.put(signature(methods[i].getName(), methods[i].getParameterTypes()), i);
+        }
+
+        for (int i = 0; i < constructors.length; i++) {
+            constructorSignatures.put(signature("<init>", constructors[i].getParameterTypes()), i);
+        }
+    }
+
+    /**
+     * Gets the value of the field with the given index.
+     *
+     * @param fieldIndex index of the field.
+     * @param target the object to get the value from.
+     * @return the value of the field, boxed if primitive.
+     */
+    public abstract Object get(int fieldIndex, Object target) throws Throwable;
+
+    /**
+     * Sets the value of the field with the given index.
+     * Final fields can't be set.
+     *
+     * @param fieldIndex index of the field.
+     * @param target the object to set the value for.
+     * @param value the new value.
+     */
+    public abstract void set(int fieldIndex, Object target, Object value) throws Throwable;
+
+    /**
+     * Invokes the method with the given index.
+     *
+     * @param methodIndex index of the method.
+     * @param target the object to invoke the method on.
+     * @param args the arguments for the method.
+     * @return the result of the method, <tt>null</tt> for void methods.
+     */
+    public abstract Object invoke(int methodIndex, Object target, Object...args) throws Throwable;
+
+    /**
+     * Invokes the constructor with the given index.
+     *
+     * @param constructorIndex index of the constructor.
+     * @param args the arguments for the constructor.
+     * @return the new instance.
+     */
+    public abstract Object newInstance(int constructorIndex, Object...args) throws Throwable;
+
+    /**
+     * @return index of the field with the given name or -1.
+     */
+    public int fieldIndex(String name) {
+        Integer index = fieldIndices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return index of a method with the given name or -1,
+     *         for overloaded methods use {@link ClassAccess#methodIndex(String, Class[])}.
+     */
+    public int methodIndex(String name) {
+        Integer index = methodIndices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return index of the method with the given name and parameter types or -1.
+     */
+    public int methodIndex(String name, Class<?>...pTypes) {
+        Integer index = methodSignatures.get(signature(name, pTypes));
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return index of the constructor with the given parameter types or -1.
+     */
+    public int constructorIndex(Class<?>...pTypes) {
+        Integer index = constructorSignatures.get(signature("<init>", pTypes));
+        return index == null ? -1 : index;
+    }
+
+    public Field[] getFields() {
+        return fields.clone();
+    }
+
+    public Method[] getMethods() {
+        return methods.clone();
+    }
+
+    public Constructor<?>[] getConstructors() {
+        return constructors.clone();
+    }
+
+    /** Called by the generated code for unknown indices. */
+    protected IndexOutOfBoundsException badIndex(int index) {
+        return new IndexOutOfBoundsException("No member for index: " + index);
+    }
+
+    /** Called by the generated code for final fields. */
+    protected IllegalArgumentException readOnly(int fieldIndex) {
+        return new IllegalArgumentException("Field " + fields[fieldIndex].getName() + " is final.");
+    }
+
+    private static String signature(String name, Class<?>...pTypes) {
+        StringBuilder builder = new StringBuilder(name).append("(");
+        for (Class<?> pType : pTypes) {
+            builder.append(pType.getName()).append(";");
+        }
+
+        return builder.append(")").toString();
+    }
+
+}
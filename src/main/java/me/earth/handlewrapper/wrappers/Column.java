@@ -0,0 +1,230 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.ColumnFactory;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Copies one field of many objects into an array or a {@link ByteBuffer}
+ * (gather) and back (scatter). Implementations are generated by the
+ * {@link ColumnFactory} with one loop per method that accesses the field
+ * through a <b>static final</b> MethodHandle, without boxing.
+ * <p>
+ * <p>Arrays of the field are arrays of its type, e.g. an <tt>int[]</tt> for
+ * an int field, or any <tt>Object[]</tt> that can hold the values for other
+ * fields. In buffers values are written at absolute indices, booleans as
+ * a byte. The objects can't be null.
+ * <p>
+ * <p>The parallel methods split the range across a {@link ForkJoinPool},
+ * which only pays off for very large inputs.
+ */
+public abstract class Column {
+    /** Ranges smaller than this aren't split any further by the parallel methods. */
+    public static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private final Field field;
+    private final Class<?> arrayType;
+    private final int bytes;
+
+    protected Column(Field field, int bytes) {
+        this.field = field;
+        this.arrayType = field.getType().isPrimitive() ? Array.newInstance(field.getType(), 0).getClass() : Object[].class;
+        this.bytes = bytes;
+    }
+
+    protected abstract void gather0(Object[] src, int srcFrom, Object dst, int dstFrom, int length);
+
+    protected abstract void gather0(List<?> src, int srcFrom, Object dst, int dstFrom, int length);
+
+    protected abstract void gather0(Object[] src, int srcFrom, ByteBuffer dst, int index, int length);
+
+    protected abstract void scatter0(Object src, int srcFrom, Object[] dst, int dstFrom, int length);
+
+    protected abstract void scatter0(ByteBuffer src, int index, Object[] dst, int dstFrom, int length);
+
+    /**
+     * Copies the field of every object into the array.
+     *
+     * @param src the objects.
+     * @param dst an array of the fields type, at least as long as src.
+     */
+    public void gather(Object[] src, Object dst) {
+        gather(src, 0, dst, 0, src.length);
+    }
+
+    public void gather(Object[] src, int srcFrom, Object dst, int dstFrom, int length) {
+        checkArray(dst);
+        gather0(src, srcFrom, dst, dstFrom, length);
+    }
+
+    /**
+     * Copies the field of every object into the array. The list should be
+     * {@link java.util.RandomAccess}, since it's accessed by index.
+     *
+     * @param src the objects.
+     * @param dst an array of the fields type, at least as large as src.
+     */
+    public void gather(List<?> src, Object dst) {
+        gather(src, 0, dst, 0, src.size());
+    }
+
+    public void gather(List<?> src, int srcFrom, Object dst, int dstFrom, int length) {
+        checkArray(dst);
+        gather0(src, srcFrom, dst, dstFrom, length);
+    }
+
+    /**
+     * Writes the field of every object into the buffer, starting at the given index.
+     *
+     * @param src the objects.
+     * @param dst the buffer, its position isn't used or changed.
+     * @param index the index of the first byte.
+     */
+    public void gather(Object[] src, ByteBuffer dst, int index) {
+        gather(src, 0, dst, index, src.length);
+    }
+
+    public void gather(Object[] src, int srcFrom, ByteBuffer dst, int index, int length) {
+        checkBuffer();
+        gather0(src, srcFrom, dst, index, length);
+    }
+
+    /**
+     * Sets the field of every object to the value in the array.
+     *
+     * @param src an array of the fields type, at least as long as dst.
+     * @param dst the objects.
+     */
+    public void scatter(Object src, Object[] dst) {
+        scatter(src, 0, dst, 0, dst.length);
+    }
+
+    public void scatter(Object src, int srcFrom, Object[] dst, int dstFrom, int length) {
+        checkArray(src);
+        scatter0(src, srcFrom, dst, dstFrom, length);
+    }
+
+    /**
+     * Sets the field of every object to the value read from the buffer.
+     *
+     * @param src the buffer, its position isn't used or changed.
+     * @param index the index of the first byte.
+     * @param dst the objects.
+     */
+    public void scatter(ByteBuffer src, int index, Object[] dst) {
+        scatter(src, index, dst, 0, dst.length);
+    }
+
+    public void scatter(ByteBuffer src, int index, Object[] dst, int dstFrom, int length) {
+        checkBuffer();
+        scatter0(src, index, dst, dstFrom, length);
+    }
+
+    /**
+     * {@link Column#gather(Object[], Object)} in parallel.
+     */
+    public void gatherParallel(Object[] src, Object dst, ForkJoinPool pool) {
+        checkArray(dst);
+        pool.invoke(new RangeTask(0, src.length, (from, to) -> gather0(src, from, dst, from, to - from)));
+    }
+
+    /**
+     * {@link Column#gather(List, Object)} in parallel,
+     * the list needs to be {@link java.util.RandomAccess}.
+     */
+    public void gatherParallel(List<?> src, Object dst, ForkJoinPool pool) {
+        checkArray(dst);
+        pool.invoke(new RangeTask(0, src.size(), (from, to) -> gather0(src, from, dst, from, to - from)));
+    }
+
+    /**
+     * {@link Column#gather(Object[], ByteBuffer, int)} in parallel.
+     */
+    public void gatherParallel(Object[] src, ByteBuffer dst, int index, ForkJoinPool pool) {
+        checkBuffer();
+        pool.invoke(new RangeTask(0, src.length, (from, to) -> gather0(src, from, dst, index + from * bytes, to - from)));
+    }
+
+    /**
+     * {@link Column#scatter(Object, Object[])} in parallel.
+     */
+    public void scatterParallel(Object src, Object[] dst, ForkJoinPool pool) {
+        checkArray(src);
+        pool.invoke(new RangeTask(0, dst.length, (from, to) -> scatter0(src, from, dst, from, to - from)));
+    }
+
+    /**
+     * {@link Column#scatter(ByteBuffer, int, Object[])} in parallel.
+     */
+    public void scatterParallel(ByteBuffer src, int index, Object[] dst, ForkJoinPool pool) {
+        checkBuffer();
+        pool.invoke(new RangeTask(0, dst.length, (from, to) -> scatter0(src, index + from * bytes, dst, from, to - from)));
+    }
+
+    /**
+     * @return the field of this column.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return how many bytes a value takes in a buffer, 0 if the field isn't primitive.
+     */
+    public int bytes() {
+        return bytes;
+    }
+
+    /** Thrown by generated scatter methods of final fields. */
+    protected IllegalArgumentException readOnly() {
+        return new IllegalArgumentException("Field " + field.getName() + " is final.");
+    }
+
+    private void checkArray(Object array) {
+        if (field.getType().isPrimitive() ? array.getClass() != arrayType : !(array instanceof Object[])) {
+            throw new IllegalArgumentException("Column " + field.getName() + " needs an array of " + field.getType().getName() + ", not " + array.getClass().getName() + ".");
+        }
+    }
+
+    private void checkBuffer() {
+        if (bytes == 0) {
+            throw new IllegalArgumentException("Column " + field.getName() + " isn't primitive, it can't be written to a buffer.");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Range {
+        void apply(int from, int to);
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final Range range;
+
+        private RangeTask(int from, int to, Range range) {
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                range.apply(from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, range), new RangeTask(middle, to, range));
+        }
+    }
+
+}
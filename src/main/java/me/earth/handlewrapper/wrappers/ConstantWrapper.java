@@ -0,0 +1,99 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.WrapperFactory;
+
+import java.lang.reflect.Field;
+
+/**
+ * A getter for a field whose value doesn't change anymore, e.g. a
+ * <b>static final</b> constant of another module. Implementations are
+ * generated by {@link WrapperFactory#wrapConstant(Field)} and return the
+ * value captured when they were created: primitives and Strings as an
+ * <tt>LDC</tt> constant, other objects from a <b>static final</b>
+ * {@link java.lang.invoke.MethodHandles#constant(Class, Object)}.
+ * <p>
+ * <p>The typed getters allow the same widening conversions as
+ * {@link Field#getLong(Object)} and throw an IllegalArgumentException
+ * for others. {@link HandleWrapper#invoke(Object...)} ignores its
+ * arguments and returns the boxed value.
+ */
+public abstract class ConstantWrapper implements HandleWrapper {
+    private final Field field;
+
+    protected ConstantWrapper(Field field) {
+        this.field = field;
+    }
+
+    /**
+     * @return the value, boxed if it's primitive.
+     */
+    public abstract Object get();
+
+    @Override
+    public Object invoke(Object...args) {
+        return get();
+    }
+
+    @Override
+    public Object invokeExact(Object...args) {
+        return get();
+    }
+
+    /**
+     * Stores the value as the type of the field, the buffer needs to be empty.
+     */
+    @Override
+    public void invokeBuffer(ArgBuffer args) {
+        args.checkSize(0);
+        args.setResult(field.getType(), get());
+    }
+
+    public boolean getBoolean() {
+        throw wrongType(boolean.class);
+    }
+
+    public byte getByte() {
+        throw wrongType(byte.class);
+    }
+
+    public char getChar() {
+        throw wrongType(char.class);
+    }
+
+    public short getShort() {
+        throw wrongType(short.class);
+    }
+
+    public int getInt() {
+        throw wrongType(int.class);
+    }
+
+    public long getLong() {
+        throw wrongType(long.class);
+    }
+
+    public float getFloat() {
+        throw wrongType(float.class);
+    }
+
+    public double getDouble() {
+        throw wrongType(double.class);
+    }
+
+    /**
+     * @return the field whose value this wrapper returns.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    @Override
+    public String toString() {
+        return "ConstantWrapper(" + field + " = " + get() + ")";
+    }
+
+    private IllegalArgumentException wrongType(Class<?> type) {
+        return new IllegalArgumentException("Can't get " + field.getType().getName() + " field " + field.getName() + " as " + type.getName() + ".");
+    }
+
+}
@@ -0,0 +1,113 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.EquivalenceFactory;
+
+import java.util.Comparator;
+
+/**
+ * Equality, hash codes and ordering for objects of a class, based on a
+ * list of its fields instead of its own equals and hashCode methods.
+ * Implementations are generated by the {@link EquivalenceFactory} and
+ * compare the fields in straight-line code, primitives without boxing.
+ * <p>
+ * <p>To use it with a {@link java.util.HashMap} wrap the objects with
+ * {@link Equivalence#key(Object)}:
+ * <blockquote><pre>{@code
+ *      Equivalence<SomeClass> equivalence = EquivalenceFactory.create(SomeClass.class, "foo", "bar");
+ *      Map<Equivalence.Key<SomeClass>, Value> map = new HashMap<>();
+ *      map.put(equivalence.key(someObject), value);
+ * }</pre></blockquote>
+ *
+ * @param <T> the type of objects compared.
+ */
+public abstract class Equivalence<T> implements Comparator<T> {
+    /**
+     * @return <tt>true</tt> if both are null, or if all fields are equal.
+     *         Floats and doubles are compared like {@link Double#equals(Object)},
+     *         objects like {@link java.util.Objects#equals(Object, Object)}.
+     */
+    public abstract boolean equals(T a, T b);
+
+    /**
+     * @return a hash code computed from all fields like
+     *         {@link java.util.Arrays#hashCode(Object[])}, 0 for null.
+     */
+    public abstract int hashCode(T object);
+
+    /**
+     * Compares the fields in order, until one differs. Primitives are compared
+     * like their boxes' static compare methods, objects need to be
+     * {@link Comparable}, null comes first.
+     */
+    @Override
+    public abstract int compare(T a, T b);
+
+    /**
+     * @param object the object to wrap.
+     * @return a Key whose equals and hashCode use this Equivalence.
+     */
+    public Key<T> key(T object) {
+        return new Key<>(this, object);
+    }
+
+    /** Called by generated code to compare fields that aren't primitive. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected static int compareObjects(Object a, Object b) {
+        if (a == b) {
+            return 0;
+        } else if (a == null) {
+            return -1;
+        } else if (b == null) {
+            return 1;
+        }
+
+        return ((Comparable) a).compareTo(b);
+    }
+
+    /**
+     * Wraps an object for use as a key in hash based collections.
+     * The hash code is computed once, so the fields shouldn't change
+     * while the Key is in use.
+     *
+     * @param <T> type of the wrapped object.
+     */
+    public static final class Key<T> {
+        private final Equivalence<T> equivalence;
+        private final T object;
+        private final int hash;
+
+        private Key(Equivalence<T> equivalence, T object) {
+            this.equivalence = equivalence;
+            this.object = object;
+            this.hash = equivalence.hashCode(object);
+        }
+
+        public T get() {
+            return object;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            } else if (!(o instanceof Key) || ((Key<?>) o).equivalence != equivalence) {
+                return false;
+            }
+
+            Key<T> other = (Key<T>) o;
+            return hash == other.hash && equivalence.equals(object, other.object);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "Key(" + object + ")";
+        }
+    }
+
+}
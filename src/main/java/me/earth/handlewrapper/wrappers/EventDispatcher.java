@@ -0,0 +1,18 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.EventBus;
+
+/**
+ * Calls all listeners for one type of event. Implementations are
+ * generated by the {@link EventBus}, with every listener method bound
+ * to its listener as a <b>static final</b> MethodHandle.
+ */
+public interface EventDispatcher {
+    /**
+     * Calls all listeners in order of their priority.
+     *
+     * @param event the event to dispatch.
+     */
+    void dispatch(Object event) throws Throwable;
+
+}
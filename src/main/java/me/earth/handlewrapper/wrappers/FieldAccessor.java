@@ -0,0 +1,115 @@
+package me.earth.handlewrapper.wrappers;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes one field with primitive typed methods, so that
+ * neither reads nor writes box. Implementations are generated for
+ * {@link me.earth.handlewrapper.FastField} and hold the getter and setter
+ * as <b>static final</b> MethodHandles. The receiver is ignored for
+ * static fields and isn't checked, that's up to the caller.
+ * <p>
+ * <p>The typed methods allow the same widening conversions as
+ * {@link Field#getLong(Object)} and {@link Field#setLong(Object, long)},
+ * others throw an IllegalArgumentException, as do all setters of final fields.
+ */
+public abstract class FieldAccessor {
+    private final Field field;
+
+    protected FieldAccessor(Field field) {
+        this.field = field;
+    }
+
+    /**
+     * @return the value, boxed if it's primitive.
+     */
+    public abstract Object get(Object obj);
+
+    /**
+     * Sets the field, primitives need to be given as their exact box.
+     */
+    public void set(Object obj, Object value) {
+        throw wrongType("set", Object.class);
+    }
+
+    public boolean getBoolean(Object obj) {
+        throw wrongType("get", boolean.class);
+    }
+
+    public byte getByte(Object obj) {
+        throw wrongType("get", byte.class);
+    }
+
+    public char getChar(Object obj) {
+        throw wrongType("get", char.class);
+    }
+
+    public short getShort(Object obj) {
+        throw wrongType("get", short.class);
+    }
+
+    public int getInt(Object obj) {
+        throw wrongType("get", int.class);
+    }
+
+    public long getLong(Object obj) {
+        throw wrongType("get", long.class);
+    }
+
+    public float getFloat(Object obj) {
+        throw wrongType("get", float.class);
+    }
+
+    public double getDouble(Object obj) {
+        throw wrongType("get", double.class);
+    }
+
+    public void setBoolean(Object obj, boolean z) {
+        throw wrongType("set", boolean.class);
+    }
+
+    public void setByte(Object obj, byte b) {
+        throw wrongType("set", byte.class);
+    }
+
+    public void setChar(Object obj, char c) {
+        throw wrongType("set", char.class);
+    }
+
+    public void setShort(Object obj, short s) {
+        throw wrongType("set", short.class);
+    }
+
+    public void setInt(Object obj, int i) {
+        throw wrongType("set", int.class);
+    }
+
+    public void setLong(Object obj, long l) {
+        throw wrongType("set", long.class);
+    }
+
+    public void setFloat(Object obj, float f) {
+        throw wrongType("set", float.class);
+    }
+
+    public void setDouble(Object obj, double d) {
+        throw wrongType("set", double.class);
+    }
+
+    /**
+     * @return the field this accessor reads and writes.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    @Override
+    public String toString() {
+        return "FieldAccessor(" + field + ")";
+    }
+
+    private IllegalArgumentException wrongType(String action, Class<?> type) {
+        return new IllegalArgumentException("Can't " + action + " " + field.getType().getName() + " field " + field.getName() + (action.equals("get") ? " as " : " with ") + type.getName() + ".");
+    }
+
+}
@@ -0,0 +1,62 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.FlyweightFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A view of fixed size records in a {@link ByteBuffer}. Every object
+ * created by the {@link FlyweightFactory} implements this interface,
+ * the interfaces given to the factory can extend it to avoid casting.
+ * A single flyweight can be moved over millions of records, without
+ * creating an object per record:
+ * <blockquote><pre>{@code
+ *      Particle particle = FlyweightFactory.create(Particle.class, buffer);
+ *      for (int i = 0; i < particle.capacity(); i++) {
+ *          particle.moveToRecord(i);
+ *          sum += particle.getX();
+ *      }
+ * }</pre></blockquote>
+ */
+public interface Flyweight {
+    /**
+     * Points this flyweight at the given buffer.
+     *
+     * @param buffer the buffer, its byte order is used.
+     * @param base the index of the first byte of the record.
+     */
+    void wrap(ByteBuffer buffer, int base);
+
+    /**
+     * @param base the index of the first byte of the record.
+     */
+    void moveTo(int base);
+
+    /**
+     * Moves to <tt>index * size()</tt>.
+     *
+     * @param index the index of the record.
+     */
+    void moveToRecord(int index);
+
+    /**
+     * @return the index of the first byte of the current record.
+     */
+    int getBase();
+
+    /**
+     * @return the size of a record in bytes.
+     */
+    int size();
+
+    /**
+     * @return how many complete records fit into the limit of the buffer.
+     */
+    int capacity();
+
+    /**
+     * @return the buffer, <tt>null</tt> if it hasn't been wrapped yet.
+     */
+    ByteBuffer getBuffer();
+
+}
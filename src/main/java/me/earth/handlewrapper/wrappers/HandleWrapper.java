@@ -15,4 +15,19 @@ public interface HandleWrapper {
     /** {@link MethodHandle#invokeExact(Object...)}. */
     Object invokeExact(Object...args) throws Throwable;
 
+    /**
+     * Invokes the handle with the arguments in the buffer and stores the
+     * result in it. Generated wrappers read the slots directly and neither
+     * box nor allocate, every slot has to hold exactly its parameter type.
+     * <p>
+     * <p>This default is for wrappers without a single signature, e.g. an
+     * {@link OverloadWrapper}, and the wrappers of the PathFactory. It boxes the slots for {@link HandleWrapper#invoke(Object...)},
+     * which converts them, and stores the result by its class, see {@link ArgBuffer#setBoxed(Object)}.
+     *
+     * @param args the arguments, read by their parameter types.
+     */
+    default void invokeBuffer(ArgBuffer args) throws Throwable {
+        args.setBoxed(invoke(args.toArray()));
+    }
+
 }
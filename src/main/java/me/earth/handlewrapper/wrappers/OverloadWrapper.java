@@ -0,0 +1,190 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.WrapperFactory;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * A {@link HandleWrapper} for all overloads of a method, which calls
+ * the most specific overload for the runtime classes of the arguments.
+ * Implementations are generated by
+ * {@link WrapperFactory#wrapOverloads(Class, String)}: an <tt>instanceof</tt>
+ * chain selects the overload, a <tt>tableswitch</tt> calls its
+ * <b>static final</b> MethodHandle.
+ * <p>
+ * <p>For more than four overloads the classes of the last two argument
+ * lists and their overloads are remembered, so call sites that keep
+ * passing the same classes skip the <tt>instanceof</tt> chain. For
+ * instance methods the first argument is the target, it doesn't take
+ * part in the selection.
+ * <p>
+ * <p>Like javac, a call for which two applicable overloads are
+ * equally specific, e.g. <tt>handle(Comparable)</tt> and
+ * <tt>handle(CharSequence)</tt> for a String, is rejected as ambiguous.
+ */
+public abstract class OverloadWrapper implements HandleWrapper {
+    /** With fewer overloads the instanceof chain is as fast as the cache. */
+    private static final int CACHE_THRESHOLD = 4;
+
+    private final Method[] methods;
+    private final int[][] conflicts;
+    private final int offset;
+    private final boolean cached;
+    private CacheEntry first;
+    private CacheEntry second;
+
+    /**
+     * @param conflicts for every overload the indices of the overloads
+     *                  that would make a call ambiguous if they're applicable too.
+     */
+    protected OverloadWrapper(Method[] methods, boolean isStatic, int[][] conflicts) {
+        this.methods = methods;
+        this.conflicts = conflicts;
+        this.offset = isStatic ? 0 : 1;
+        this.cached = methods.length > CACHE_THRESHOLD;
+    }
+
+    /**
+     * @return the index of the most specific overload applicable
+     *         to the given arguments, or -1 if there is none.
+     */
+    protected abstract int select(Object[] args);
+
+    /**
+     * Invokes the overload with the given index.
+     */
+    protected abstract Object invoke(int index, Object[] args) throws Throwable;
+
+    @Override
+    public Object invoke(Object...args) throws Throwable {
+        return invoke(lookup(args), args);
+    }
+
+    /**
+     * Same as {@link OverloadWrapper#invoke(Object...)}, the arguments
+     * are always matched against the overloads by their runtime classes.
+     */
+    @Override
+    public Object invokeExact(Object...args) throws Throwable {
+        return invoke(lookup(args), args);
+    }
+
+    /**
+     * @return the overloads, by their index.
+     */
+    public Method[] getMethods() {
+        return methods.clone();
+    }
+
+    /**
+     * @return the overload that would be called for the given arguments.
+     * @throws IllegalArgumentException if no overload is applicable,
+     *                                  or the call is ambiguous.
+     */
+    public Method getMethod(Object...args) {
+        return methods[lookup(args)];
+    }
+
+    /**
+     * Thrown by the generated invoke method for an unknown index.
+     */
+    protected IndexOutOfBoundsException badIndex(int index) {
+        return new IndexOutOfBoundsException("No overload with index " + index + ".");
+    }
+
+    /**
+     * Used by the generated select method for parameters of a type
+     * it can't reference, because the type isn't public.
+     */
+    protected boolean isInstance(int index, int param, Object arg) {
+        return arg == null || methods[index].getParameterTypes()[param].isInstance(arg);
+    }
+
+    private int lookup(Object[] args) {
+        if (!cached) {
+            return check(select(args), args);
+        }
+
+        // racy on purpose, the entries are immutable and losing one only costs a select.
+        CacheEntry entry = first;
+        if (entry != null && entry.matches(args, offset)) {
+            return entry.index;
+        }
+
+        CacheEntry other = second;
+        if (other != null && other.matches(args, offset)) {
+            second = entry;
+            first = other;
+            return other.index;
+        }
+
+        int index = check(select(args), args);
+        second = entry;
+        first = new CacheEntry(args, offset, index);
+        return index;
+    }
+
+    private int check(int index, Object[] args) {
+        if (index < 0) {
+            throw new IllegalArgumentException("No overload of " + methods[0].getName() + " for " + Arrays.toString(args) + ".");
+        }
+
+        for (int other : conflicts[index]) {
+            if (isApplicable(other, args)) {
+                throw new IllegalArgumentException("Call of " + methods[0].getName() + " for " + Arrays.toString(args) + " is ambiguous: " + methods[index] + " and " + methods[other] + ".");
+            }
+        }
+
+        return index;
+    }
+
+    // same rules as the generated select method.
+    private boolean isApplicable(int index, Object[] args) {
+        Class<?>[] pTypes = methods[index].getParameterTypes();
+        if (args.length - offset != pTypes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < pTypes.length; i++) {
+            Object arg = args[i + offset];
+            if (arg == null ? pTypes[i].isPrimitive() : !MethodType.methodType(pTypes[i]).wrap().returnType().isInstance(arg)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static final class CacheEntry {
+        private final Class<?>[] classes; // null for null arguments
+        private final int index;
+
+        private CacheEntry(Object[] args, int offset, int index) {
+            this.classes = new Class<?>[Math.max(args.length - offset, 0)];
+            for (int i = 0; i < classes.length; i++) {
+                Object arg = args[i + offset];
+                classes[i] = arg == null ? null : arg.getClass();
+            }
+
+            this.index = index;
+        }
+
+        private boolean matches(Object[] args, int offset) {
+            if (args.length - offset != classes.length) {
+                return false;
+            }
+
+            for (int i = 0; i < classes.length; i++) {
+                Object arg = args[i + offset];
+                if ((arg == null ? null : arg.getClass()) != classes[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+}
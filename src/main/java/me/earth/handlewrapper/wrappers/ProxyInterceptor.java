@@ -0,0 +1,29 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.ProxyFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+
+/**
+ * Decorates the methods of a proxy created by
+ * {@link ProxyFactory#create(Class, Object, ProxyInterceptor)}.
+ * Unlike an {@link java.lang.reflect.InvocationHandler} it is called
+ * once per method when the proxy is created, not on every call, and
+ * returns a MethodHandle which becomes the <b>static final</b> body
+ * of the method, e.g. built with
+ * {@link java.lang.invoke.MethodHandles#filterReturnValue(MethodHandle, MethodHandle)}.
+ */
+@FunctionalInterface
+public interface ProxyInterceptor {
+    /**
+     * @param method the interface method.
+     * @param target the method bound to the delegate, its type is the
+     *               type of the method without the receiver.
+     * @return the handle to call instead, which can be adapted with
+     *         {@link MethodHandle#asType(java.lang.invoke.MethodType)}
+     *         to the type of the target.
+     */
+    MethodHandle intercept(Method method, MethodHandle target) throws Throwable;
+
+}
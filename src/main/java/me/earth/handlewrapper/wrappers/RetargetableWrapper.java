@@ -0,0 +1,61 @@
+package me.earth.handlewrapper.wrappers;
+
+import me.earth.handlewrapper.WrapperFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+
+/**
+ * A {@link HandleWrapper} whose target can be changed at runtime,
+ * e.g. for hot patching or feature toggles, without generating a
+ * new class. Generated by
+ * {@link WrapperFactory#wrapRetargetable(MethodHandle, Class, boolean, Class, Class[])}.
+ * <p>
+ * <p>The generated class invokes the {@link MutableCallSite#dynamicInvoker()}
+ * through a <b>static final</b> field, so as long as the target doesn't
+ * change it is treated as a constant. Retargeting deoptimizes the
+ * compiled callers, it should be rare compared to invocations.
+ */
+public abstract class RetargetableWrapper implements HandleWrapper {
+    private final MutableCallSite callSite;
+
+    protected RetargetableWrapper(MutableCallSite callSite) {
+        this.callSite = callSite;
+    }
+
+    /**
+     * Changes the target of this wrapper. Other threads are guaranteed
+     * to see the new target once this method returns.
+     *
+     * @param target the new target, needs to have exactly the type
+     *               of this wrapper, use {@link MethodHandle#asType(MethodType)}
+     *               to adapt it if necessary.
+     * @throws IllegalArgumentException if the type doesn't match.
+     */
+    public void retarget(MethodHandle target) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target can't be null.");
+        } else if (!target.type().equals(callSite.type())) {
+            throw new IllegalArgumentException("Target type " + target.type() + " doesn't match " + callSite.type() + ".");
+        }
+
+        callSite.setTarget(target);
+        MutableCallSite.syncAll(new MutableCallSite[]{callSite});
+    }
+
+    /**
+     * @return the current target of this wrapper.
+     */
+    public MethodHandle getTarget() {
+        return callSite.getTarget();
+    }
+
+    /**
+     * @return the type every target of this wrapper needs to have.
+     */
+    public MethodType type() {
+        return callSite.type();
+    }
+
+}
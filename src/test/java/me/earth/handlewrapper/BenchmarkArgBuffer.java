@@ -0,0 +1,59 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.ArgBuffer;
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls a method with five primitive parameters through
+ * {@link HandleWrapper#invoke(Object...)} and {@link HandleWrapper#invokeBuffer(ArgBuffer)}.
+ * Run with <tt>-prof gc</tt> to see the allocations.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class BenchmarkArgBuffer {
+    private final ArgBuffer buffer = new ArgBuffer();
+    private HandleWrapper wrapper;
+    private long l = 1_000_000L;
+    private int i = 1000;
+    private double d = 1000.5;
+
+    @Setup
+    public void setup() throws Throwable {
+        Method method = BenchmarkArgBuffer.class.getMethod("compute", long.class, int.class, double.class, double.class, long.class);
+        wrapper = WrapperFactory.wrap(MethodHandles.lookup().unreflect(method), method);
+    }
+
+    @Benchmark
+    public double benchmarkVarargs() throws Throwable {
+        return (double) wrapper.invoke(l, i, d, d, l);
+    }
+
+    @Benchmark
+    public double benchmarkArgBuffer() throws Throwable {
+        wrapper.invokeBuffer(buffer.clear().putLong(l).putInt(i).putDouble(d).putDouble(d).putLong(l));
+        return buffer.getDouble();
+    }
+
+    public static double compute(long a, int b, double c, double d, long e) {
+        return a + b * c - d + e;
+    }
+
+}
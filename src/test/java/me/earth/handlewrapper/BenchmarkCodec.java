@@ -0,0 +1,131 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.util.CodecTestClass;
+import me.earth.handlewrapper.wrappers.BufferCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a {@link BufferCodec} from the {@link CodecFactory} with
+ * a codec that uses reflection and boxes every primitive.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkCodec {
+    @Param({"heap", "direct"})
+    private String bufferType;
+
+    private final CodecTestClass object = new CodecTestClass(true, (byte) 1, 'c', (short) 2, 3, 4.0f, 5L, 6.0, null);
+    private ByteBuffer buffer;
+    private BufferCodec codec;
+    private Field[] fields;
+    private Constructor<CodecTestClass> constructor;
+
+    @Setup
+    public void setup() throws Throwable {
+        buffer = bufferType.equals("heap") ? ByteBuffer.allocate(256) : ByteBuffer.allocateDirect(256);
+        codec = CodecFactory.create(CodecTestClass.class);
+        List<Field> fieldList = new ArrayList<>();
+        for (Field field : CodecTestClass.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                field.setAccessible(true);
+                fieldList.add(field);
+            }
+        }
+
+        fields = fieldList.toArray(new Field[0]);
+        constructor = CodecTestClass.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+    }
+
+    @Benchmark
+    public Object benchmarkCodec() throws Throwable {
+        buffer.clear();
+        codec.write(object, buffer);
+        buffer.flip();
+        return codec.read(buffer);
+    }
+
+    @Benchmark
+    public Object benchmarkReflection() throws Throwable {
+        buffer.clear();
+        for (Field field : fields) {
+            writeReflective(field.get(object), field.getType());
+        }
+
+        buffer.flip();
+        CodecTestClass result = constructor.newInstance();
+        for (Field field : fields) {
+            field.set(result, readReflective(field.getType()));
+        }
+
+        return result;
+    }
+
+    private void writeReflective(Object value, Class<?> type) {
+        if (type == boolean.class) {
+            buffer.put((byte) ((Boolean) value ? 1 : 0));
+        } else if (type == byte.class) {
+            buffer.put((Byte) value);
+        } else if (type == char.class) {
+            buffer.putChar((Character) value);
+        } else if (type == short.class) {
+            buffer.putShort((Short) value);
+        } else if (type == int.class) {
+            buffer.putInt((Integer) value);
+        } else if (type == float.class) {
+            buffer.putFloat((Float) value);
+        } else if (type == long.class) {
+            buffer.putLong((Long) value);
+        } else if (type == double.class) {
+            buffer.putDouble((Double) value);
+        } else {
+            buffer.putInt(-1); // only null Strings in this benchmark
+        }
+    }
+
+    private Object readReflective(Class<?> type) {
+        if (type == boolean.class) {
+            return buffer.get() != 0;
+        } else if (type == byte.class) {
+            return buffer.get();
+        } else if (type == char.class) {
+            return buffer.getChar();
+        } else if (type == short.class) {
+            return buffer.getShort();
+        } else if (type == int.class) {
+            return buffer.getInt();
+        } else if (type == float.class) {
+            return buffer.getFloat();
+        } else if (type == long.class) {
+            return buffer.getLong();
+        } else if (type == double.class) {
+            return buffer.getDouble();
+        }
+
+        buffer.getInt();
+        return null;
+    }
+
+}
@@ -0,0 +1,77 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.Column;
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gathers an int field of 1 million objects into an int[] through a
+ * {@link Column}, in parallel and through a getter {@link HandleWrapper}.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkColumn {
+    private final Element[] elements = new Element[1_000_000];
+    private final int[] values = new int[elements.length];
+    private Column column;
+    private HandleWrapper getter;
+
+    @Setup
+    public void setup() throws Throwable {
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = new Element(i);
+        }
+
+        Field field = Element.class.getDeclaredField("value");
+        column = ColumnFactory.create(field);
+        getter = WrapperFactory.wrapGetter(MethodHandles.lookup().unreflectGetter(field), field);
+    }
+
+    @Benchmark
+    public int[] benchmarkColumn() {
+        column.gather(elements, values);
+        return values;
+    }
+
+    @Benchmark
+    public int[] benchmarkColumnParallel() {
+        column.gatherParallel(elements, values, ForkJoinPool.commonPool());
+        return values;
+    }
+
+    @Benchmark
+    public int[] benchmarkWrapperLoop() throws Throwable {
+        for (int i = 0; i < elements.length; i++) {
+            values[i] = (int) getter.invoke(elements[i]);
+        }
+
+        return values;
+    }
+
+    public static class Element {
+        public int value;
+
+        public Element(int value) {
+            this.value = value;
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.util.ConstantTestClass;
+import me.earth.handlewrapper.wrappers.ConstantWrapper;
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a static final int through a getter wrapper and a {@link ConstantWrapper}.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkConstant {
+    private HandleWrapper getter;
+    private ConstantWrapper constant;
+
+    @Setup
+    public void setup() throws Throwable {
+        Field field = ConstantTestClass.class.getField("INT");
+        getter = WrapperFactory.wrapGetter(MethodHandles.lookup().unreflectGetter(field), field);
+        constant = WrapperFactory.wrapConstant(field);
+    }
+
+    @Benchmark
+    public int benchmarkGetter() throws Throwable {
+        return (int) getter.invoke();
+    }
+
+    @Benchmark
+    public int benchmarkConstant() {
+        return constant.getInt();
+    }
+
+}
@@ -0,0 +1,79 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts an event to 1 to 100 listeners through the {@link EventBus}
+ * and through a loop over {@link HandleWrapper}s.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkEventBus {
+    @Param({"1", "10", "100"})
+    private int listeners;
+
+    private final Event event = new Event();
+    private final EventBus bus = new EventBus();
+    private Listener[] listenerArray;
+    private HandleWrapper[] wrappers;
+
+    @Setup
+    public void setup() throws Throwable {
+        Method method = Listener.class.getDeclaredMethod("onEvent", Event.class);
+        listenerArray = new Listener[listeners];
+        wrappers = new HandleWrapper[listeners];
+        for (int i = 0; i < listeners; i++) {
+            listenerArray[i] = new Listener();
+            // one wrapper per listener, like a naive bus would create them
+            wrappers[i] = WrapperFactory.wrap(MethodHandles.lookup().unreflect(method), method);
+            bus.register(listenerArray[i]);
+        }
+
+        bus.post(event);
+    }
+
+    @Benchmark
+    public void benchmarkEventBus() throws Throwable {
+        bus.post(event);
+    }
+
+    @Benchmark
+    public void benchmarkWrapperLoop() throws Throwable {
+        for (int i = 0; i < wrappers.length; i++) {
+            wrappers[i].invoke(listenerArray[i], event);
+        }
+    }
+
+    public static class Event {
+        private int value;
+    }
+
+    public static class Listener {
+        private int received;
+
+        @Subscribe
+        public void onEvent(Event event) {
+            received += event.value + 1;
+        }
+    }
+
+}
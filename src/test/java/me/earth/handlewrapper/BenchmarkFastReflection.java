@@ -0,0 +1,71 @@
+package me.earth.handlewrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FastMethod} and {@link FastField} with the
+ * reflection calls they replace.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkFastReflection {
+    private final Target target = new Target();
+    private Method method;
+    private Field field;
+    private FastMethod fastMethod;
+    private FastField fastField;
+
+    @Setup
+    public void setup() throws Throwable {
+        method = Target.class.getDeclaredMethod("add", int.class, int.class);
+        field = Target.class.getDeclaredField("value");
+        fastMethod = FastMethod.of(method);
+        fastField = FastField.of(field);
+    }
+
+    @Benchmark
+    public Object benchmarkMethodInvoke() throws Exception {
+        return method.invoke(target, 1, 2);
+    }
+
+    @Benchmark
+    public Object benchmarkFastMethodInvoke() throws Exception {
+        return fastMethod.invoke(target, 1, 2);
+    }
+
+    @Benchmark
+    public int benchmarkFieldGetInt() throws Exception {
+        return field.getInt(target);
+    }
+
+    @Benchmark
+    public int benchmarkFastFieldGetInt() throws Exception {
+        return fastField.getInt(target);
+    }
+
+    public static class Target {
+        public int value = 5;
+
+        public int add(int a, int b) {
+            return a + b + value;
+        }
+    }
+
+}
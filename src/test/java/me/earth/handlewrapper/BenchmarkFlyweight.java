@@ -0,0 +1,106 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.Flyweight;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sums a value of 1 million records in a direct ByteBuffer through a
+ * generated {@link Flyweight}, through hand written buffer access and
+ * from an array of objects on the heap.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkFlyweight {
+    private static final int RECORDS = 1_000_000;
+    private static final int SIZE = 16;
+
+    private ByteBuffer buffer;
+    private Record flyweight;
+    private HeapRecord[] heapRecords;
+
+    @Setup
+    public void setup() throws Throwable {
+        buffer = ByteBuffer.allocateDirect(RECORDS * SIZE);
+        flyweight = FlyweightFactory.create(Record.class, SIZE);
+        flyweight.wrap(buffer, 0);
+        heapRecords = new HeapRecord[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            flyweight.moveToRecord(i);
+            flyweight.setId(i);
+            flyweight.setValue(i * 0.5);
+            heapRecords[i] = new HeapRecord(i, i * 0.5);
+        }
+    }
+
+    @Benchmark
+    public double benchmarkFlyweight() {
+        double sum = 0.0;
+        for (int i = 0; i < RECORDS; i++) {
+            flyweight.moveToRecord(i);
+            sum += flyweight.getValue();
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public double benchmarkBuffer() {
+        double sum = 0.0;
+        for (int i = 0; i < RECORDS; i++) {
+            sum += buffer.getDouble(i * SIZE + 8);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public double benchmarkHeapObjects() {
+        double sum = 0.0;
+        for (HeapRecord record : heapRecords) {
+            sum += record.value;
+        }
+
+        return sum;
+    }
+
+    public interface Record extends Flyweight {
+        @Offset(0)
+        int getId();
+
+        @Offset(0)
+        void setId(int id);
+
+        @Offset(8)
+        double getValue();
+
+        @Offset(8)
+        void setValue(double value);
+    }
+
+    private static final class HeapRecord {
+        private final int id;
+        private final double value;
+
+        private HeapRecord(int id, double value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates the arguments and counts the calls of a method with
+ * two decorators around a HandleWrapper and with fused {@link Interceptor}s.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkInterceptors {
+    private static int calls;
+    private HandleWrapper decorated;
+    private HandleWrapper fused;
+    private int value = 5;
+
+    @Setup
+    public void setup() throws Throwable {
+        Method method = BenchmarkInterceptors.class.getMethod("add", int.class, int.class);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        decorated = new Counting(new Validating(WrapperFactory.wrap(handle, method)));
+
+        MethodType type = MethodType.methodType(int.class, int.class, int.class);
+        fused = WrapperFactory.wrapIntercepted(handle, method, Arrays.asList(
+                Interceptor.before(MethodHandles.lookup().findStatic(BenchmarkInterceptors.class, "validate", type.changeReturnType(void.class))),
+                Interceptor.around(MethodHandles.lookup().findStatic(BenchmarkInterceptors.class, "count", type.insertParameterTypes(0, MethodHandle.class)))));
+    }
+
+    @Benchmark
+    public Object benchmarkDecorated() throws Throwable {
+        return decorated.invoke(value, value);
+    }
+
+    @Benchmark
+    public Object benchmarkFused() throws Throwable {
+        return fused.invoke(value, value);
+    }
+
+    public static int add(int a, int b) {
+        return a + b;
+    }
+
+    public static void validate(int a, int b) {
+        if (a < 0 || b < 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    public static int count(MethodHandle proceed, int a, int b) throws Throwable {
+        calls++;
+        return (int) proceed.invokeExact(a, b);
+    }
+
+    private static final class Validating implements HandleWrapper {
+        private final HandleWrapper next;
+
+        private Validating(HandleWrapper next) {
+            this.next = next;
+        }
+
+        @Override
+        public Object invoke(Object... args) throws Throwable {
+            validate((int) args[0], (int) args[1]);
+            return next.invoke(args);
+        }
+
+        @Override
+        public Object invokeExact(Object... args) throws Throwable {
+            return invoke(args);
+        }
+    }
+
+    private static final class Counting implements HandleWrapper {
+        private final HandleWrapper next;
+
+        private Counting(HandleWrapper next) {
+            this.next = next;
+        }
+
+        @Override
+        public Object invoke(Object... args) throws Throwable {
+            calls++;
+            return next.invoke(args);
+        }
+
+        @Override
+        public Object invokeExact(Object... args) throws Throwable {
+            return invoke(args);
+        }
+    }
+
+}
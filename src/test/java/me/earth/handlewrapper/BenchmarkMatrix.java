@@ -0,0 +1,162 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invokes instance methods with 0 to 6 int parameters returning
+ * an int, an Object or void through a {@link HandleWrapper} and
+ * through a spreader handle that isn't static final, as a reference.
+ * Other member kinds are covered by {@link BenchmarkMembers}.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkMatrix {
+    @Param({"0", "1", "2", "3", "4", "5", "6"})
+    private int arity;
+
+    @Param({"int", "Object", "void"})
+    private String returnType;
+
+    private HandleWrapper wrapper;
+    private MethodHandle spreader;
+    private Object[] args;
+
+    @Setup
+    public void setup() throws Throwable {
+        Class<?>[] pTypes = new Class<?>[arity];
+        Arrays.fill(pTypes, int.class);
+        Method method = Target.class.getMethod(returnType.substring(0, 1).toLowerCase() + arity, pTypes);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        wrapper = WrapperFactory.wrap(handle, method);
+        spreader = handle.asType(MethodType.genericMethodType(arity + 1)).asSpreader(Object[].class, arity + 1);
+        args = new Object[arity + 1];
+        args[0] = new Target();
+        for (int i = 1; i < args.length; i++) {
+            args[i] = i;
+        }
+    }
+
+    @Benchmark
+    public Object benchmarkWrapper() throws Throwable {
+        return wrapper.invoke(args);
+    }
+
+    @Benchmark
+    public Object benchmarkNonFinalSpreader() throws Throwable {
+        return (Object) spreader.invokeExact(args);
+    }
+
+    @SuppressWarnings("unused")
+    public static class Target {
+        private final Object object = new Object();
+        private int counter;
+
+        public int i0() {
+            return 1;
+        }
+
+        public Object o0() {
+            return object;
+        }
+
+        public void v0() {
+            counter++;
+        }
+
+        public int i1(int a0) {
+            return a0;
+        }
+
+        public Object o1(int a0) {
+            return object;
+        }
+
+        public void v1(int a0) {
+            counter++;
+        }
+
+        public int i2(int a0, int a1) {
+            return a0 + a1;
+        }
+
+        public Object o2(int a0, int a1) {
+            return object;
+        }
+
+        public void v2(int a0, int a1) {
+            counter++;
+        }
+
+        public int i3(int a0, int a1, int a2) {
+            return a0 + a1 + a2;
+        }
+
+        public Object o3(int a0, int a1, int a2) {
+            return object;
+        }
+
+        public void v3(int a0, int a1, int a2) {
+            counter++;
+        }
+
+        public int i4(int a0, int a1, int a2, int a3) {
+            return a0 + a1 + a2 + a3;
+        }
+
+        public Object o4(int a0, int a1, int a2, int a3) {
+            return object;
+        }
+
+        public void v4(int a0, int a1, int a2, int a3) {
+            counter++;
+        }
+
+        public int i5(int a0, int a1, int a2, int a3, int a4) {
+            return a0 + a1 + a2 + a3 + a4;
+        }
+
+        public Object o5(int a0, int a1, int a2, int a3, int a4) {
+            return object;
+        }
+
+        public void v5(int a0, int a1, int a2, int a3, int a4) {
+            counter++;
+        }
+
+        public int i6(int a0, int a1, int a2, int a3, int a4, int a5) {
+            return a0 + a1 + a2 + a3 + a4 + a5;
+        }
+
+        public Object o6(int a0, int a1, int a2, int a3, int a4, int a5) {
+            return object;
+        }
+
+        public void v6(int a0, int a1, int a2, int a3, int a4, int a5) {
+            counter++;
+        }
+
+    }
+
+}
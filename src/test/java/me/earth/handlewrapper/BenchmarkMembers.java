@@ -0,0 +1,130 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static methods, constructors, getters, setters and interface wrappers,
+ * each compared with direct access, plus a multi-threaded run.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkMembers {
+    private final Member member = new Member(5);
+    private int value = 5;
+    private HandleWrapper staticWrapper;
+    private HandleWrapper constructor;
+    private HandleWrapper getter;
+    private HandleWrapper setter;
+    private MemberInterface custom;
+
+    @Setup
+    public void setup() throws Throwable {
+        Method twice = Member.class.getDeclaredMethod("twice", int.class);
+        MethodHandle twiceHandle = MethodHandles.lookup().unreflect(twice);
+        staticWrapper = WrapperFactory.wrap(twiceHandle, twice);
+
+        Constructor<Member> ctr = Member.class.getDeclaredConstructor(int.class);
+        constructor = WrapperFactory.wrapConstructor(MethodHandles.lookup().unreflectConstructor(ctr), ctr);
+
+        Field field = Member.class.getDeclaredField("value");
+        field.setAccessible(true);
+        getter = WrapperFactory.wrapGetter(MethodHandles.lookup().unreflectGetter(field), field);
+        setter = WrapperFactory.wrapSetter(MethodHandles.lookup().unreflectSetter(field), field);
+
+        Map<Method, Method> links = new HashMap<>();
+        links.put(MemberInterface.class.getDeclaredMethod("twice", int.class), MethodHandle.class.getDeclaredMethod("invoke", Object[].class));
+        custom = WrapperFactory.wrap(MemberInterface.class, links, twiceHandle);
+    }
+
+    @Benchmark
+    public int benchmarkDirectStatic() {
+        return Member.twice(value);
+    }
+
+    @Benchmark
+    public int benchmarkWrapperStatic() throws Throwable {
+        return (int) staticWrapper.invoke(value);
+    }
+
+    @Benchmark
+    public int benchmarkInterfaceStatic() {
+        return custom.twice(value);
+    }
+
+    @Benchmark
+    public Object benchmarkDirectConstructor() {
+        return new Member(value);
+    }
+
+    @Benchmark
+    public Object benchmarkWrapperConstructor() throws Throwable {
+        return constructor.invoke(value);
+    }
+
+    @Benchmark
+    public int benchmarkDirectGetter() {
+        return member.value;
+    }
+
+    @Benchmark
+    public int benchmarkWrapperGetter() throws Throwable {
+        return (int) getter.invoke(member);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int benchmarkWrapperGetterThreads() throws Throwable {
+        return (int) getter.invoke(member);
+    }
+
+    @Benchmark
+    public void benchmarkDirectSetter() {
+        member.value = value;
+    }
+
+    @Benchmark
+    public void benchmarkWrapperSetter() throws Throwable {
+        setter.invoke(member, value);
+    }
+
+    public interface MemberInterface {
+        int twice(int i);
+    }
+
+    public static class Member {
+        private int value;
+
+        public Member(int value) {
+            this.value = value;
+        }
+
+        public static int twice(int i) {
+            return i * 2;
+        }
+    }
+
+}
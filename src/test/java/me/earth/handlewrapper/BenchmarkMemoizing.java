@@ -0,0 +1,78 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls an expensive pure method through a plain wrapper, a
+ * {@link MemoizingWrapper} and an ad-hoc {@link ConcurrentHashMap}.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkMemoizing {
+    private final Map<Integer, Object> map = new ConcurrentHashMap<>();
+    private HandleWrapper wrapper;
+    private MemoizingWrapper memoized;
+    private int value;
+
+    @Setup
+    public void setup() throws Throwable {
+        Method method = BenchmarkMemoizing.class.getMethod("expensive", int.class);
+        wrapper = WrapperFactory.wrap(MethodHandles.lookup().unreflect(method), method);
+        memoized = WrapperFactory.wrapMemoized(MethodHandles.lookup().unreflect(method), method, 1024);
+    }
+
+    @Benchmark
+    public Object benchmarkWrapper() throws Throwable {
+        return wrapper.invoke(next());
+    }
+
+    @Benchmark
+    public Object benchmarkMemoized() throws Throwable {
+        return memoized.invoke(next());
+    }
+
+    @Benchmark
+    public Object benchmarkMap() {
+        return map.computeIfAbsent(next(), i -> {
+            try {
+                return wrapper.invoke(i);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        });
+    }
+
+    private int next() {
+        return value = (value + 1) & 255;
+    }
+
+    public static double expensive(int seed) {
+        double result = seed;
+        for (int i = 0; i < 1000; i++) {
+            result = Math.sqrt(result + i);
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,97 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+import me.earth.handlewrapper.wrappers.OverloadWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches packets of three classes to their overloads with a
+ * {@link HashMap} of HandleWrappers per class and with an {@link OverloadWrapper}.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkOverloads {
+    private final Map<Class<?>, HandleWrapper> wrappers = new HashMap<>();
+    private final Object[] packets = {new Login(), new Chat(), new Move()};
+    private final Handler handler = new Handler();
+    private OverloadWrapper overloads;
+    private int index;
+
+    @Setup
+    public void setup() throws Throwable {
+        for (Method method : Handler.class.getMethods()) {
+            if (method.getName().equals("handle")) {
+                wrappers.put(method.getParameterTypes()[0], WrapperFactory.wrap(MethodHandles.lookup().unreflect(method), method));
+            }
+        }
+
+        overloads = WrapperFactory.wrapOverloads(Handler.class, "handle");
+    }
+
+    @Benchmark
+    public Object benchmarkMapMonomorphic() throws Throwable {
+        Object packet = packets[0];
+        return wrappers.get(packet.getClass()).invoke(handler, packet);
+    }
+
+    @Benchmark
+    public Object benchmarkOverloadsMonomorphic() throws Throwable {
+        return overloads.invoke(handler, packets[0]);
+    }
+
+    @Benchmark
+    public Object benchmarkMapMegamorphic() throws Throwable {
+        Object packet = next();
+        return wrappers.get(packet.getClass()).invoke(handler, packet);
+    }
+
+    @Benchmark
+    public Object benchmarkOverloadsMegamorphic() throws Throwable {
+        return overloads.invoke(handler, next());
+    }
+
+    private Object next() {
+        index = index == 2 ? 0 : index + 1;
+        return packets[index];
+    }
+
+    public static class Login { }
+
+    public static class Chat { }
+
+    public static class Move { }
+
+    public static class Handler {
+        public int handle(Login login) {
+            return 1;
+        }
+
+        public int handle(Chat chat) {
+            return 2;
+        }
+
+        public int handle(Move move) {
+            return 3;
+        }
+    }
+
+}
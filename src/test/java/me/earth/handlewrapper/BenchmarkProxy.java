@@ -0,0 +1,66 @@
+package me.earth.handlewrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls a delegate directly, through a {@link java.lang.reflect.Proxy}
+ * and through a proxy created by the {@link ProxyFactory}.
+ */
+@Fork(value = 1, warmups = 1)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkProxy {
+    private final Service direct = new ServiceImpl();
+    private int value = 5;
+    private Service reflectProxy;
+    private Service handleProxy;
+
+    @Setup
+    public void setup() throws Throwable {
+        reflectProxy = (Service) Proxy.newProxyInstance(Service.class.getClassLoader(), new Class<?>[]{Service.class},
+                                                        (proxy, method, args) -> method.invoke(direct, args));
+        handleProxy = ProxyFactory.create(Service.class, direct, null);
+    }
+
+    @Benchmark
+    public int benchmarkDirect() {
+        return direct.compute(value, value);
+    }
+
+    @Benchmark
+    public int benchmarkReflectProxy() {
+        return reflectProxy.compute(value, value);
+    }
+
+    @Benchmark
+    public int benchmarkHandleProxy() {
+        return handleProxy.compute(value, value);
+    }
+
+    public interface Service {
+        int compute(int a, int b);
+    }
+
+    public static class ServiceImpl implements Service {
+        @Override
+        public int compute(int a, int b) {
+            return a * 31 + b;
+        }
+    }
+
+}
@@ -1,8 +1,183 @@
 package me.earth.handlewrapper;
 
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the JMH benchmarks. Without any of the following options
+ * all arguments are passed to JMH as they are:
+ * <p>-<tt>--results file</tt>: writes the scores as JSON to the given file,
+ * <p>-<tt>--baseline file</tt>: compares the scores with a file written by
+ *     <tt>--results</tt>, e.g. <tt>src/test/resources/benchmark-baseline.json</tt>,
+ *     and exits with 1 if a benchmark regressed,
+ * <p>-<tt>--threshold percent</tt>: how much worse a score can get
+ *     before it counts as a regression, defaults to 10. Scores whose
+ *     confidence interval overlaps the baseline's never count.
+ * <p>
+ * <p>All other arguments are passed to JMH:
+ * <blockquote><pre>{@code
+ *      BenchmarkRunner --results target/benchmark-results.json --baseline src/test/resources/benchmark-baseline.json BenchmarkMatrix -f 1
+ * }</pre></blockquote>
+ */
 public class BenchmarkRunner {
+    private static final Pattern ENTRY = Pattern.compile("\"(.+)\": \\{\"mode\": \"(\\w+)\", \"score\": ([-0-9.eE]+|NaN), \"error\": ([-0-9.eE]+|NaN), \"unit\": \"(.+)\"}");
+
     public static void main(String[] args) throws Exception {
-        org.openjdk.jmh.Main.main(args);
+        Path results = null;
+        Path baseline = null;
+        double threshold = 10.0;
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--results":
+                    results = Paths.get(args[++i]);
+                    break;
+                case "--baseline":
+                    baseline = Paths.get(args[++i]);
+                    break;
+                case "--threshold":
+                    threshold = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    jmhArgs.add(args[i]);
+            }
+        }
+
+        if (results == null && baseline == null) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        Options options = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        Collection<RunResult> runResults = new Runner(options).run();
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (RunResult runResult : runResults) {
+            Result<?> result = runResult.getPrimaryResult();
+            scores.put(key(runResult), new Score(runResult.getParams().getMode().shortLabel(), result.getScore(), result.getScoreError(), result.getScoreUnit()));
+        }
+
+        if (results != null) {
+            write(results, scores);
+            System.out.println("Results written to " + results.toAbsolutePath());
+        }
+
+        if (baseline != null && compare(read(baseline), scores, threshold) > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String key(RunResult runResult) {
+        StringBuilder builder = new StringBuilder(runResult.getParams().getBenchmark());
+        String separator = ":";
+        for (String param : runResult.getParams().getParamsKeys()) {
+            builder.append(separator).append(param).append("=").append(runResult.getParams().getParam(param));
+            separator = ",";
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Prints a comparison and returns the amount of regressions. A score
+     * only counts as a regression if it is more than threshold percent
+     * worse and its confidence interval doesn't overlap the baseline's,
+     * otherwise the difference can't be told apart from noise.
+     */
+    private static int compare(Map<String, Score> baseline, Map<String, Score> scores, double threshold) {
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : scores.entrySet()) {
+            Score base = baseline.get(entry.getKey());
+            Score score = entry.getValue();
+            if (base == null || !base.mode.equals(score.mode) || !base.unit.equals(score.unit)) {
+                System.out.println("NEW        " + entry.getKey() + ": " + score);
+                continue;
+            }
+
+            // For throughput higher is better, for all other modes lower is.
+            boolean higherIsBetter = score.mode.equals("thrpt");
+            double change = base.score == 0.0 ? Double.NaN : (score.score - base.score) / Math.abs(base.score) * 100.0;
+            double worse = higherIsBetter ? -change : change;
+            boolean separated = higherIsBetter
+                    ? score.score + error(score) < base.score - error(base)
+                    : score.score - error(score) > base.score + error(base);
+            boolean regressed = separated && (Double.isNaN(worse) || worse > threshold);
+            regressions += regressed ? 1 : 0;
+            System.out.println(String.format(Locale.ROOT, "%-10s %s: %s -> %s (%+.1f%%)", regressed ? "REGRESSION" : "OK", entry.getKey(), base, score, change));
+        }
+
+        System.out.println(regressions + " regression(s) above " + threshold + "% outside of the confidence intervals.");
+        return regressions;
+    }
+
+    /**
+     * @return the error of the score, JMH reports NaN if there was only one iteration.
+     */
+    private static double error(Score score) {
+        return Double.isNaN(score.error) ? 0.0 : score.error;
+    }
+
+    private static void write(Path path, Map<String, Score> scores) throws Exception {
+        StringBuilder json = new StringBuilder("{\n");
+        int i = 0;
+        for (Map.Entry<String, Score> entry : scores.entrySet()) {
+            Score score = entry.getValue();
+            json.append(String.format(Locale.ROOT, "  \"%s\": {\"mode\": \"%s\", \"score\": %s, \"error\": %s, \"unit\": \"%s\"}",
+                                      entry.getKey(), score.mode, score.score, score.error, score.unit))
+                .append(++i < scores.size() ? ",\n" : "\n");
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        Files.write(path, json.append("}\n").toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Score> read(Path path) throws Exception {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            Matcher matcher = ENTRY.matcher(line);
+            if (matcher.find()) {
+                scores.put(matcher.group(1), new Score(matcher.group(2), Double.parseDouble(matcher.group(3)), Double.parseDouble(matcher.group(4)), matcher.group(5)));
+            }
+        }
+
+        return scores;
+    }
+
+    private static final class Score {
+        private final String mode;
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        private Score(String mode, double score, double error, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.3f \u00b1 %.3f %s", score, error, unit);
+        }
     }
 
 }
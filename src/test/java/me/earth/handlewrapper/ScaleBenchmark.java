@@ -0,0 +1,208 @@
+package me.earth.handlewrapper;
+
+import me.earth.handlewrapper.wrappers.HandleWrapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Stress test for large amounts of wrappers. For every size it creates
+ * that many wrappers with the {@link WrapperFactory} and records:
+ * <p>-the total time it took to wrap them,
+ * <p>-Metaspace and Compressed Class Space usage,
+ * <p>-loaded and unloaded classes,
+ * <p>-GC count and time,
+ * <p>-invocation throughput of a random sample after a warm up.
+ * <p>
+ * <p>The results are written as JSON, so they can be compared across versions.
+ * Usage: <tt>ScaleBenchmark [report.json] [sizes...]</tt>, defaults to
+ * <tt>target/scale-report.json 1000 10000 100000</tt>. Sizes run one after
+ * another in the same JVM, the wrappers of a size are dropped before the next.
+ */
+public class ScaleBenchmark {
+    private static final int SAMPLE = 100;
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 200_000;
+
+    public static void main(String[] args) throws Throwable {
+        Path report = Paths.get(args.length > 0 ? args[0] : "target/scale-report.json");
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            sizes.add(Integer.parseInt(args[i]));
+        }
+
+        if (sizes.isEmpty()) {
+            sizes.add(1_000);
+            sizes.add(10_000);
+            sizes.add(100_000);
+        }
+
+        Method[] methods = new Method[]{
+            Target.class.getDeclaredMethod("getX"),
+            Target.class.getDeclaredMethod("add", long.class, long.class),
+            Target.class.getDeclaredMethod("concat", String.class, int.class),
+            Target.class.getDeclaredMethod("half", double.class)
+        };
+
+        MethodHandle[] handles = new MethodHandle[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            methods[i].setAccessible(true);
+            handles[i] = MethodHandles.lookup().unreflect(methods[i]);
+        }
+
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"javaVersion\": \"").append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"vm\": \"").append(System.getProperty("java.vm.name")).append("\",\n");
+        json.append("  \"runs\": [");
+        for (int i = 0; i < sizes.size(); i++) {
+            System.gc();
+            Snapshot before = new Snapshot();
+            long start = System.nanoTime();
+            HandleWrapper[] wrappers = new HandleWrapper[sizes.get(i)];
+            for (int j = 0; j < wrappers.length; j++) {
+                wrappers[j] = WrapperFactory.wrap(handles[j % handles.length], methods[j % methods.length]);
+            }
+
+            long wrapNanos = System.nanoTime() - start;
+            Snapshot after = new Snapshot();
+            double callsPerMicro = measureSample(wrappers);
+
+            json.append(i == 0 ? "\n" : ",\n").append("    {\n");
+            field(json, "wrappers", wrappers.length, true);
+            field(json, "wrapMillis", wrapNanos / 1_000_000.0, true);
+            field(json, "wrapMicrosPerWrapper", wrapNanos / 1000.0 / wrappers.length, true);
+            field(json, "metaspaceBytes", after.metaspace - before.metaspace, true);
+            field(json, "classSpaceBytes", after.classSpace - before.classSpace, true);
+            field(json, "loadedClasses", after.loaded - before.loaded, true);
+            field(json, "unloadedClasses", after.unloaded - before.unloaded, true);
+            field(json, "gcCount", after.gcCount - before.gcCount, true);
+            field(json, "gcMillis", after.gcMillis - before.gcMillis, true);
+            field(json, "sampleCallsPerMicro", callsPerMicro, false);
+            json.append("    }");
+            System.out.println(wrappers.length + " wrappers: " + wrapNanos / 1_000_000 + "ms, " + (after.loaded - before.loaded) + " classes, " + (after.metaspace - before.metaspace) / 1024 + "KB metaspace, " + callsPerMicro + " calls/us");
+        }
+
+        json.append("\n  ]\n}\n");
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+
+        try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            writer.write(json.toString());
+        } catch (IOException e) {
+            System.err.println(json);
+            throw e;
+        }
+
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    private static double measureSample(HandleWrapper[] wrappers) throws Throwable {
+        Random random = new Random(0);
+        HandleWrapper[] sample = new HandleWrapper[Math.min(SAMPLE, wrappers.length)];
+        int[] kinds = new int[sample.length];
+        for (int i = 0; i < sample.length; i++) {
+            int index = random.nextInt(wrappers.length);
+            sample[i] = wrappers[index];
+            kinds[i] = index % 4;
+        }
+
+        Target target = new Target();
+        long blackhole = 0;
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            blackhole += call(sample[i % sample.length], kinds[i % sample.length], target);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            blackhole += call(sample[i % sample.length], kinds[i % sample.length], target);
+        }
+
+        long nanos = System.nanoTime() - start;
+        if (blackhole == 42) {
+            System.out.println();
+        }
+
+        return MEASURED_CALLS * 1000.0 / nanos;
+    }
+
+    private static long call(HandleWrapper wrapper, int kind, Target target) throws Throwable {
+        switch (kind) {
+            case 0:
+                return (int) wrapper.invoke(target);
+            case 1:
+                return (long) wrapper.invoke(target, 1L, 2L);
+            case 2:
+                return ((String) wrapper.invoke(target, "a", 1)).length();
+            default:
+                return (long) (double) wrapper.invoke(2.0);
+        }
+    }
+
+    private static void field(StringBuilder json, String name, Object value, boolean comma) {
+        json.append("      \"").append(name).append("\": ").append(value).append(comma ? ",\n" : "\n");
+    }
+
+    private static final class Snapshot {
+        private long metaspace;
+        private long classSpace;
+        private long loaded;
+        private long unloaded;
+        private long gcCount;
+        private long gcMillis;
+
+        private Snapshot() {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getName().equals("Metaspace")) {
+                    metaspace = pool.getUsage().getUsed();
+                } else if (pool.getName().equals("Compressed Class Space")) {
+                    classSpace = pool.getUsage().getUsed();
+                }
+            }
+
+            ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+            loaded = classLoading.getTotalLoadedClassCount();
+            unloaded = classLoading.getUnloadedClassCount();
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, gc.getCollectionCount());
+                gcMillis += Math.max(0, gc.getCollectionTime());
+            }
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class Target {
+        private int x = 5;
+
+        private int getX() {
+            return x;
+        }
+
+        private long add(long a, long b) {
+            return a + b;
+        }
+
+        private String concat(String s, int i) {
+            return s + i;
+        }
+
+        private static double half(double d) {
+            return d / 2;
+        }
+    }
+
+}
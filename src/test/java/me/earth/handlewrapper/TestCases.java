@@ -1,21 +1,57 @@
 package me.earth.handlewrapper;
 
+import me.earth.handlewrapper.util.CodecTestClass;
+import me.earth.handlewrapper.util.ConstantTestClass;
+import me.earth.handlewrapper.util.EventTestListener;
+import me.earth.handlewrapper.util.FlyweightTestRecord;
+import me.earth.handlewrapper.util.InterceptorTestClass;
 import me.earth.handlewrapper.util.InterfaceLongDoubleTest;
+import me.earth.handlewrapper.util.OverloadTestClass;
+import me.earth.handlewrapper.util.PathTestClass;
+import me.earth.handlewrapper.util.ProxyTestInterface;
 import me.earth.handlewrapper.util.TestClass;
+import me.earth.handlewrapper.wrappers.ArgBuffer;
+import me.earth.handlewrapper.wrappers.BufferCodec;
+import me.earth.handlewrapper.wrappers.ClassAccess;
+import me.earth.handlewrapper.wrappers.Column;
+import me.earth.handlewrapper.wrappers.ConstantWrapper;
+import me.earth.handlewrapper.wrappers.Equivalence;
 import me.earth.handlewrapper.wrappers.HandleWrapper;
+import me.earth.handlewrapper.wrappers.OverloadWrapper;
+import me.earth.handlewrapper.wrappers.RetargetableWrapper;
 import me.earth.handlewrapper.util.HandleMaker;
 import me.earth.handlewrapper.util.CustomMethodHandle;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.awt.Point;
+import java.awt.geom.Point2D;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestCases {
     @Test
@@ -43,6 +79,15 @@ public class TestCases {
         wrapper.invoke(10);
 
         Assertions.assertEquals(TestClass.getStaticState(), 10);
+
+        Method parseInt = Integer.class.getMethod("parseInt", String.class);
+        MethodHandle parseHandle = MethodHandles.lookup().unreflect(parseInt);
+        Assertions.assertEquals(42, WrapperFactory.wrap(parseHandle, parseInt).invoke("42"));
+        Assertions.assertEquals(42, WrapperFactory.wrapRetargetable(parseHandle, parseInt).invoke("42"));
+        MemoizingWrapper parser = WrapperFactory.wrapMemoized(parseHandle, parseInt, 16);
+        Assertions.assertEquals(42, parser.invoke("42"));
+        Assertions.assertEquals(42, parser.invoke("42"));
+        Assertions.assertEquals(1, parser.getHits());
     }
 
     @Test
@@ -55,6 +100,21 @@ public class TestCases {
         Assertions.assertEquals(testClass.getI(), 600);
     }
 
+    @Test
+    public void testAdaptedHandle() throws Throwable {
+        Method method = TestClass.class.getDeclaredMethod("getI");
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        HandleWrapper widened = WrapperFactory.wrap(handle.asType(MethodType.methodType(Object.class, Object.class)), method);
+        Assertions.assertEquals(5, widened.invokeExact(new TestClass()));
+
+        MethodHandle bound = handle.bindTo(new TestClass());
+        HandleWrapper wrapper = WrapperFactory.wrap(bound, TestClass.class, true, Object.class);
+        Assertions.assertEquals(5, wrapper.invoke());
+        Assertions.assertEquals(5, wrapper.invokeExact());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WrapperFactory.wrap(handle, TestClass.class, true, int.class, int.class));
+    }
+
     @Test
     public void testCustomHandle() throws Throwable {
         Random rnd = new Random();
@@ -83,4 +143,667 @@ public class TestCases {
         Assertions.assertEquals(expected, result);
     }
 
+    @Test
+    public void testPath() throws Throwable {
+        TestClass root = new TestClass();
+        TestClass child = new TestClass();
+        child.setChild(new TestClass());
+        root.setChild(child);
+
+        HandleWrapper path = PathFactory.wrapPath(TestClass.class, "child.getChild().i", false);
+        Assertions.assertEquals(5, path.invoke(root));
+        Assertions.assertEquals(5, path.invokeExact(root));
+        Assertions.assertThrows(NullPointerException.class, () -> path.invoke(child));
+
+        HandleWrapper nullSafe = PathFactory.wrapPath(TestClass.class, "child.getChild().i", true);
+        Assertions.assertEquals(5, nullSafe.invoke(root));
+        Assertions.assertNull(nullSafe.invoke(child));
+        Assertions.assertNull(nullSafe.invoke((Object) null));
+
+        PathTestClass hidden = new PathTestClass();
+        Assertions.assertEquals(3, PathFactory.wrapPath(PathTestClass.class, "hidden.x", false).invoke(hidden));
+        Assertions.assertEquals("hidden", PathFactory.wrapPath(PathTestClass.class, "hidden.self().self().name", false).invoke(hidden));
+        Assertions.assertEquals("Hidden", PathFactory.wrapPath(PathTestClass.class, "hidden.self()", true).invoke(hidden).getClass().getSimpleName());
+
+        HandleWrapper jdkPath = PathFactory.wrapPath(Point.class, "x", false);
+        Assertions.assertEquals(3, jdkPath.invoke(new Point(3, 4)));
+    }
+
+    @Test
+    public void testClassAccess() throws Throwable {
+        ClassAccess access = ClassAccessFactory.create(TestClass.class);
+        int i = access.fieldIndex("i");
+        int getI = access.methodIndex("getI");
+        int ctr = access.constructorIndex(int.class);
+        Assertions.assertEquals(-1, access.fieldIndex("doesntExist"));
+
+        TestClass testClass = (TestClass) access.newInstance(ctr, 600);
+        Assertions.assertEquals(600, access.get(i, testClass));
+        access.set(i, testClass, 10);
+        Assertions.assertEquals(10, testClass.getI());
+        Assertions.assertEquals(10, access.invoke(getI, testClass));
+        Assertions.assertEquals(TestClass.getStaticState(), access.invoke(access.methodIndex("getStaticState"), null));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> access.get(-1, testClass));
+
+        ClassAccess pointAccess = ClassAccessFactory.create(Point.class);
+        Point point = (Point) pointAccess.newInstance(pointAccess.constructorIndex(int.class, int.class), 3, 4);
+        Assertions.assertEquals(3, pointAccess.get(pointAccess.fieldIndex("x"), point));
+        Assertions.assertEquals(4.0, pointAccess.invoke(pointAccess.methodIndex("getY"), point));
+    }
+
+    @Test
+    public void testCodec() throws Throwable {
+        BufferCodec codec = CodecFactory.create(CodecTestClass.class);
+        CodecTestClass object = new CodecTestClass(true, (byte) -3, 'x', (short) 300, 70000, 1.5f, Long.MAX_VALUE, -2.25, "\u00e4bc");
+        CodecTestClass nullString = new CodecTestClass(false, (byte) 0, '\0', (short) 0, 0, 0.0f, 0L, 0.0, null);
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(256), ByteBuffer.allocateDirect(256)}) {
+            codec.write(object, buffer);
+            codec.write(nullString, buffer);
+            buffer.flip();
+
+            CodecTestClass read = (CodecTestClass) codec.read(buffer);
+            Assertions.assertEquals(object, read);
+            Assertions.assertEquals(0, read.getIgnored());
+            Assertions.assertEquals(nullString, codec.read(buffer));
+            Assertions.assertFalse(buffer.hasRemaining());
+        }
+
+        ByteBuffer two = ByteBuffer.allocate(256);
+        codec.write(nullString, two);
+        two.put(0, (byte) 2).flip();
+        Assertions.assertEquals(new CodecTestClass(true, (byte) 0, '\0', (short) 0, 0, 0.0f, 0L, 0.0, null), codec.read(two));
+    }
+
+    @Test
+    public void testTieredWrapper() throws Throwable {
+        Method method = TestClass.class.getDeclaredMethod("getI");
+        TieredWrapper wrapper = WrapperFactory.wrapTiered(MethodHandles.lookup().unreflect(method), TestClass.class, false, int.class, 3, Runnable::run);
+        TestClass testClass = new TestClass();
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals(5, wrapper.invoke(testClass));
+            Assertions.assertFalse(wrapper.isCompiled());
+        }
+
+        Assertions.assertEquals(5, wrapper.invokeExact(testClass));
+        Assertions.assertTrue(wrapper.isCompiled());
+        Assertions.assertNull(wrapper.getFailure());
+        Assertions.assertEquals(5, wrapper.invoke(testClass));
+        Assertions.assertEquals(5, wrapper.invokeExact(testClass));
+
+        Method parseInt = Integer.class.getMethod("parseInt", String.class);
+        TieredWrapper jdk = WrapperFactory.wrapTiered(MethodHandles.lookup().unreflect(parseInt), Integer.class, true, int.class, 1, Runnable::run, String.class);
+        Assertions.assertEquals(42, jdk.invoke("42"));
+        Assertions.assertTrue(jdk.isCompiled());
+        Assertions.assertNull(jdk.getFailure());
+
+        ExecutorService shutDown = Executors.newSingleThreadExecutor();
+        shutDown.shutdown();
+        TieredWrapper rejected = WrapperFactory.wrapTiered(MethodHandles.lookup().unreflect(method), TestClass.class, false, int.class, 2, shutDown);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(5, rejected.invoke(testClass));
+        }
+
+        Assertions.assertFalse(rejected.isCompiled());
+        Assertions.assertTrue(rejected.getFailure() instanceof RejectedExecutionException);
+
+        // a long handle declared with an int parameter converts like the generated class in both tiers.
+        MethodHandle abs = MethodHandles.lookup().findStatic(Math.class, "abs", MethodType.methodType(long.class, long.class));
+        TieredWrapper declared = WrapperFactory.wrapTiered(abs, Math.class, true, long.class, 1, Runnable::run, int.class);
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThrows(ClassCastException.class, () -> declared.invoke(-5L));
+            Assertions.assertEquals(5L, declared.invoke(-5));
+        }
+
+        Assertions.assertTrue(declared.isCompiled());
+    }
+
+    @Test
+    public void testMemoizingWrapper() throws Throwable {
+        AtomicInteger counter = new AtomicInteger();
+        MethodHandle handle = MethodHandles.lookup().findVirtual(AtomicInteger.class, "addAndGet", MethodType.methodType(int.class, int.class)).bindTo(counter);
+        MemoizingWrapper wrapper = WrapperFactory.wrapMemoized(handle, TestClass.class, true, int.class, 4, 0, TimeUnit.NANOSECONDS, MemoizingWrapper.Eviction.LRU, int.class);
+        Assertions.assertEquals(1, wrapper.invoke(1));
+        Assertions.assertEquals(1, wrapper.invokeExact(1));
+        Assertions.assertEquals(1, counter.get());
+        Assertions.assertEquals(1, wrapper.getHits());
+        Assertions.assertEquals(1, wrapper.getMisses());
+        for (int i = 2; i <= 5; i++) {
+            wrapper.invoke(i);
+        }
+
+        Assertions.assertEquals(4, wrapper.size());
+        Assertions.assertEquals(1, wrapper.getEvictions());
+        Assertions.assertEquals(16, wrapper.invoke(1)); // evicted, called again
+        wrapper.invalidateAll();
+        Assertions.assertEquals(0, wrapper.size());
+
+        MethodHandle concat = MethodHandles.lookup().findVirtual(String.class, "concat", MethodType.methodType(String.class, String.class));
+        MemoizingWrapper composite = WrapperFactory.wrapMemoized(concat, TestClass.class, true, String.class, 16, 0, TimeUnit.NANOSECONDS, MemoizingWrapper.Eviction.TINY_LFU, String.class, String.class);
+        Assertions.assertEquals("ab", composite.invoke("a", "b"));
+        Assertions.assertEquals("ab", composite.invoke("a", "b"));
+        Assertions.assertEquals("ba", composite.invoke("b", "a"));
+        Assertions.assertEquals(1, composite.getHits());
+        Assertions.assertThrows(NullPointerException.class, () -> composite.invoke("a", null));
+        Assertions.assertEquals(2, composite.size());
+
+        // a hot key survives a scan of keys that are used once
+        MemoizingWrapper tinyLfu = WrapperFactory.wrapMemoized(handle, TestClass.class, true, int.class, 16, 0, TimeUnit.NANOSECONDS, MemoizingWrapper.Eviction.TINY_LFU, int.class);
+        Object hot = null;
+        for (int i = 0; i < 10; i++) {
+            hot = tinyLfu.invoke(-1);
+        }
+
+        for (int i = 100; i < 150; i++) {
+            tinyLfu.invoke(i);
+        }
+
+        long misses = tinyLfu.getMisses();
+        Assertions.assertEquals(hot, tinyLfu.invoke(-1));
+        Assertions.assertEquals(misses, tinyLfu.getMisses());
+
+        MemoizingWrapper expiring = WrapperFactory.wrapMemoized(handle, TestClass.class, true, int.class, 4, 1, TimeUnit.NANOSECONDS, MemoizingWrapper.Eviction.LRU, int.class);
+        expiring.invoke(0);
+        Thread.sleep(1);
+        expiring.invoke(0);
+        Assertions.assertEquals(2, expiring.getMisses());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WrapperFactory.wrapMemoized(handle, TestClass.class, true, int.class, 0, 0, TimeUnit.NANOSECONDS, MemoizingWrapper.Eviction.LRU, int.class));
+    }
+
+    @Test
+    public void testOverloadWrapper() throws Throwable {
+        OverloadWrapper wrapper = WrapperFactory.wrapOverloads(OverloadTestClass.class, "handle");
+        OverloadTestClass target = new OverloadTestClass();
+        Assertions.assertEquals(6, wrapper.getMethods().length);
+        for (int i = 0; i < 2; i++) { // second time from the cache
+            Assertions.assertEquals("String", wrapper.invoke(target, "s"));
+            Assertions.assertEquals("CharSequence", wrapper.invoke(target, new StringBuilder()));
+            Assertions.assertEquals("Object", wrapper.invoke(target, 5L));
+            Assertions.assertEquals("int", wrapper.invoke(target, 5));
+            Assertions.assertEquals("double", wrapper.invokeExact(target, 5.0));
+            Assertions.assertEquals("String", wrapper.invoke(target, (Object) null));
+            Assertions.assertEquals("String, int", wrapper.invoke(target, "s", 1));
+        }
+
+        Assertions.assertEquals(String.class, wrapper.getMethod(target, "s").getParameterTypes()[0]);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> wrapper.invoke(target, 1, "s"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> wrapper.invoke(target));
+        Assertions.assertEquals(5, WrapperFactory.wrapOverloads(TestClass.class, "getI").invoke(new TestClass()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WrapperFactory.wrapOverloads(OverloadTestClass.class, "doesntExist"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WrapperFactory.wrapOverloads(OverloadTestClass.class, "staticOverload"));
+
+        OverloadWrapper ambiguous = WrapperFactory.wrapOverloads(OverloadTestClass.class, "ambiguous");
+        Assertions.assertEquals("Comparable", ambiguous.invoke(target, 5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ambiguous.invoke(target, "s")); // String is both
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ambiguous.invoke(target, (Object) null));
+
+        Point point = new Point();
+        WrapperFactory.wrapOverloads(Point.class, "setLocation").invoke(point, 3, 4);
+        Assertions.assertEquals(new Point(3, 4), point);
+    }
+
+    @Test
+    public void testInterceptors() throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Class<?> c = InterceptorTestClass.class;
+        MethodType advice = MethodType.methodType(int.class, int.class, int.class);
+        Method divide = c.getMethod("divide", int.class, int.class);
+        List<Interceptor> interceptors = Arrays.asList(
+                Interceptor.before(lookup.findStatic(c, "before", advice.changeReturnType(void.class))),
+                Interceptor.afterThrowing(ArithmeticException.class, lookup.findStatic(c, "afterThrowing", advice.insertParameterTypes(0, ArithmeticException.class))),
+                Interceptor.afterReturning(lookup.findStatic(c, "afterReturning", MethodType.methodType(int.class, int.class))),
+                Interceptor.around(lookup.findStatic(c, "around", advice.insertParameterTypes(0, MethodHandle.class))));
+
+        HandleWrapper wrapper = WrapperFactory.wrapIntercepted(lookup.unreflect(divide), divide, interceptors);
+        InterceptorTestClass.CALLS.clear();
+        Assertions.assertEquals(5, wrapper.invoke(8, 4)); // (8 * 2) / 4 + 1
+        Assertions.assertEquals(Arrays.asList("before", "around", "divide", "afterReturning"), InterceptorTestClass.CALLS);
+
+        InterceptorTestClass.CALLS.clear();
+        Assertions.assertEquals(-1, wrapper.invokeExact(8, 0));
+        Assertions.assertEquals(Arrays.asList("before", "around", "divide", "afterThrowing"), InterceptorTestClass.CALLS);
+
+        List<Interceptor> wrongType = Collections.singletonList(Interceptor.afterReturning(MethodHandles.identity(String.class)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WrapperFactory.wrapIntercepted(lookup.unreflect(divide), divide, wrongType));
+    }
+
+    @Test
+    public void testArgBuffer() throws Throwable {
+        Method method = InterfaceLongDoubleTest.LongDoubleTest.class.getDeclaredMethod("testLongDouble", long.class, String.class, double.class, int.class);
+        HandleWrapper wrapper = WrapperFactory.wrap(MethodHandles.lookup().unreflect(method), method);
+        ArgBuffer buffer = new ArgBuffer(2); // grows
+        buffer.putRef(new InterfaceLongDoubleTest.LongDoubleTest()).putLong(5L).putRef("").putDouble(2.5).putInt(-1);
+        wrapper.invokeBuffer(buffer);
+        Assertions.assertEquals(7.5, buffer.getDouble());
+        Assertions.assertEquals(7.5, buffer.getRef());
+        Assertions.assertThrows(IllegalStateException.class, buffer::getInt);
+
+        buffer.clear().putRef(new InterfaceLongDoubleTest.LongDoubleTest()).putInt(5).putRef("").putDouble(2.5).putInt(-1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> wrapper.invokeBuffer(buffer)); // slot 1 is no long
+
+        Method getI = TestClass.class.getDeclaredMethod("getI");
+        TieredWrapper tiered = WrapperFactory.wrapTiered(MethodHandles.lookup().unreflect(getI), TestClass.class, false, int.class, 1, Runnable::run);
+        for (int i = 0; i < 2; i++) { // the spreader, then the generated class
+            tiered.invokeBuffer(buffer.clear().putRef(new TestClass()));
+            Assertions.assertEquals(5, buffer.getInt());
+        }
+
+        Assertions.assertTrue(tiered.isCompiled());
+        Method valueOf = String.class.getMethod("valueOf", Object.class);
+        TieredWrapper strict = WrapperFactory.wrapTiered(MethodHandles.lookup().unreflect(valueOf), String.class, true, String.class, 1, Runnable::run, Object.class);
+        for (int i = 0; i < 2; i++) { // both paths expect a reference, not an int
+            Assertions.assertThrows(IllegalArgumentException.class, () -> strict.invokeBuffer(buffer.clear().putInt(7)));
+        }
+
+        Assertions.assertTrue(strict.isCompiled());
+        Method boxed = Integer.class.getMethod("valueOf", int.class);
+        TieredWrapper box = WrapperFactory.wrapTiered(MethodHandles.lookup().unreflect(boxed), Integer.class, true, Integer.class, 1, Runnable::run, int.class);
+        for (int i = 0; i < 2; i++) { // an Integer result stays a reference
+            box.invokeBuffer(buffer.clear().putInt(7));
+            Assertions.assertEquals(7, buffer.getRef());
+            Assertions.assertThrows(IllegalStateException.class, buffer::getInt);
+        }
+
+        Assertions.assertTrue(box.isCompiled());
+        Method setStaticState = TestClass.class.getDeclaredMethod("setStaticState", int.class);
+        setStaticState.setAccessible(true);
+        WrapperFactory.wrap(MethodHandles.lookup().unreflect(setStaticState), setStaticState).invokeBuffer(buffer.clear().putInt(5));
+        Assertions.assertNull(buffer.getRef());
+        Assertions.assertEquals(5, TestClass.getStaticState());
+    }
+
+    @Test
+    public void testWarmUp() throws Throwable {
+        Method method = TestClass.class.getDeclaredMethod("getI");
+        HandleWrapper wrapper = WrapperFactory.wrap(MethodHandles.lookup().unreflect(method), method);
+        WarmUp warmUp = WarmUp.schedule(wrapper, Collections.singletonList(new Object[]{new TestClass()}), 2500, Runnable::run);
+        Assertions.assertTrue(warmUp.isDone());
+        Assertions.assertEquals(2500, warmUp.getCompleted());
+        Assertions.assertEquals(1.0, warmUp.getProgress());
+        Assertions.assertNull(warmUp.getFailure());
+
+        HandleWrapper path = PathFactory.wrapPath(TestClass.class, "child.i", false);
+        WarmUp failing = WarmUp.schedule(path, Collections.singletonList(new Object[]{new TestClass()}), 2500, Runnable::run);
+        Assertions.assertTrue(failing.isDone());
+        Assertions.assertEquals(0, failing.getCompleted());
+        Assertions.assertTrue(failing.getFailure() instanceof NullPointerException);
+
+        WarmUp background = WarmUp.schedule(wrapper, new Object[]{new TestClass()});
+        Assertions.assertTrue(background.await(1, TimeUnit.MINUTES));
+        Assertions.assertEquals(WarmUp.DEFAULT_ITERATIONS, background.getCompleted());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WarmUp.schedule(wrapper, Collections.emptyList(), 1, Runnable::run));
+
+        int pending = WarmUp.getPending();
+        ExecutorService shutDown = Executors.newSingleThreadExecutor();
+        shutDown.shutdown();
+        WarmUp rejected = WarmUp.schedule(wrapper, Collections.singletonList(new Object[]{new TestClass()}), 2500, shutDown);
+        Assertions.assertTrue(rejected.isDone());
+        Assertions.assertTrue(rejected.getFailure() instanceof RejectedExecutionException);
+        Assertions.assertEquals(pending, WarmUp.getPending());
+
+        AtomicInteger submits = new AtomicInteger();
+        WarmUp resubmit = WarmUp.schedule(wrapper, Collections.singletonList(new Object[]{new TestClass()}), 2500, r -> {
+            if (submits.getAndIncrement() > 0) { // takes only the first chunk
+                throw new RejectedExecutionException();
+            }
+
+            r.run();
+        });
+
+        Assertions.assertTrue(resubmit.isDone());
+        Assertions.assertEquals(1000, resubmit.getCompleted());
+        Assertions.assertTrue(resubmit.getFailure() instanceof RejectedExecutionException);
+        Assertions.assertEquals(pending, WarmUp.getPending());
+    }
+
+    @Test
+    public void testConstantWrapper() throws Throwable {
+        ConstantWrapper intWrapper = WrapperFactory.wrapConstant(ConstantTestClass.class.getField("INT"));
+        Assertions.assertEquals(5, intWrapper.getInt());
+        Assertions.assertEquals(5L, intWrapper.getLong());
+        Assertions.assertEquals(5.0, intWrapper.getDouble());
+        Assertions.assertEquals(5, intWrapper.get());
+        Assertions.assertEquals(5, intWrapper.invoke());
+        Assertions.assertThrows(IllegalArgumentException.class, intWrapper::getShort);
+        Assertions.assertThrows(IllegalArgumentException.class, intWrapper::getBoolean);
+
+        ConstantWrapper charWrapper = WrapperFactory.wrapConstant(ConstantTestClass.class.getField("CHAR"));
+        Assertions.assertEquals('a', charWrapper.getChar());
+        Assertions.assertEquals(97, charWrapper.getInt());
+        Assertions.assertEquals('a', charWrapper.get());
+        Assertions.assertTrue(WrapperFactory.wrapConstant(ConstantTestClass.class.getField("BOOLEAN")).getBoolean());
+        Assertions.assertEquals("constant", WrapperFactory.wrapConstant(ConstantTestClass.class.getField("STRING")).get());
+        Assertions.assertNull(WrapperFactory.wrapConstant(ConstantTestClass.class.getField("NULL")).get());
+
+        Field list = ConstantTestClass.class.getDeclaredField("LIST");
+        list.setAccessible(true);
+        ConstantWrapper listWrapper = WrapperFactory.wrapConstant(list);
+        Assertions.assertSame(list.get(null), listWrapper.get());
+        Assertions.assertThrows(IllegalArgumentException.class, listWrapper::getInt);
+
+        ConstantTestClass target = new ConstantTestClass();
+        Field frozen = ConstantTestClass.class.getField("frozen");
+        ConstantWrapper frozenWrapper = WrapperFactory.wrapConstant(frozen, target);
+        target.frozen = 20L;
+        Assertions.assertEquals(10L, frozenWrapper.getLong());
+        Assertions.assertEquals(10.0f, frozenWrapper.getFloat());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WrapperFactory.wrapConstant(frozen));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WrapperFactory.wrapConstant(ConstantTestClass.class.getField("mutable")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WrapperFactory.wrapConstant(ConstantTestClass.class.getField("INT"), target));
+    }
+
+    @Test
+    public void testRetargetableWrapper() throws Throwable {
+        Method method = TestClass.class.getDeclaredMethod("getI");
+        RetargetableWrapper wrapper = WrapperFactory.wrapRetargetable(MethodHandles.lookup().unreflect(method), method);
+        TestClass testClass = new TestClass();
+        Assertions.assertEquals(5, wrapper.invoke(testClass));
+
+        wrapper.retarget(MethodHandles.dropArguments(MethodHandles.constant(int.class, 42), 0, TestClass.class));
+        Assertions.assertEquals(42, wrapper.invoke(testClass));
+        Assertions.assertEquals(42, wrapper.invokeExact(testClass));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> wrapper.retarget(MethodHandles.constant(int.class, 1)));
+    }
+
+    @Test
+    public void testWrapperCache() throws Throwable {
+        Path directory = Files.createTempDirectory("handlewrapper-cache");
+        Method method = TestClass.class.getDeclaredMethod("getI");
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        try {
+            WrapperCache.enable(directory);
+            long hits = WrapperCache.getHits();
+            long misses = WrapperCache.getMisses();
+
+            Assertions.assertEquals(5, WrapperFactory.wrap(handle, method).invoke(new TestClass()));
+            Assertions.assertEquals(misses + 1, WrapperCache.getMisses());
+            HandleWrapper cached = WrapperFactory.wrap(handle, method);
+            Assertions.assertEquals(5, cached.invoke(new TestClass()));
+            Assertions.assertEquals(hits + 1, WrapperCache.getHits());
+            // the handle has been taken by the class initializer and isn't kept by its loader.
+            Assertions.assertThrows(IllegalStateException.class, () -> Handles.getHandle(cached.getClass()));
+
+            // a corrupt file gets invalidated and generated again.
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.class")) {
+                for (Path file : files) {
+                    Files.write(file, new byte[]{1, 2, 3});
+                }
+            }
+
+            Assertions.assertEquals(5, WrapperFactory.wrap(handle, method).invoke(new TestClass()));
+            Assertions.assertEquals(misses + 2, WrapperCache.getMisses());
+            Assertions.assertEquals(5, WrapperFactory.wrap(handle, method).invoke(new TestClass()));
+            Assertions.assertEquals(hits + 2, WrapperCache.getHits());
+
+            // bytes that don't match their digest aren't defined.
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.class")) {
+                for (Path file : files) {
+                    byte[] content = Files.readAllBytes(file);
+                    content[content.length - 1]++;
+                    Files.write(file, content);
+                }
+            }
+
+            Assertions.assertEquals(5, WrapperFactory.wrap(handle, method).invoke(new TestClass()));
+            Assertions.assertEquals(misses + 3, WrapperCache.getMisses());
+            Assertions.assertEquals(hits + 2, WrapperCache.getHits());
+
+            WrapperCache.clear();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                Assertions.assertFalse(files.iterator().hasNext());
+            }
+        } finally {
+            WrapperCache.clear();
+            WrapperCache.disable();
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void testProxy() throws Throwable {
+        Map<Method, MethodHandle> handles = new HashMap<>();
+        handles.put(ProxyTestInterface.class.getMethod("add", int.class, int.class), MethodHandles.lookup().findStatic(Math.class, "multiplyExact", MethodType.methodType(int.class, int.class, int.class)));
+        handles.put(ProxyTestInterface.class.getMethod("mix", long.class, String.class, double.class), MethodHandles.dropArguments(MethodHandles.constant(double.class, 1.5), 0, long.class, String.class, double.class));
+        handles.put(ProxyTestInterface.class.getMethod("name"), MethodHandles.constant(String.class, "Handles"));
+        ProxyTestInterface proxy = ProxyFactory.create(ProxyTestInterface.class, handles);
+        Assertions.assertEquals(6, proxy.add(2, 3));
+        Assertions.assertEquals(1.5, proxy.mix(1L, "s", 2.0));
+        Assertions.assertEquals("Hello Handles", proxy.greet());
+
+        handles.remove(ProxyTestInterface.class.getMethod("name"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ProxyFactory.create(ProxyTestInterface.class, handles));
+
+        List<String> calls = new ArrayList<>();
+        ProxyTestInterface delegating = ProxyFactory.create(ProxyTestInterface.class, new ProxyTestInterface.Implementation(), (method, target) -> {
+            calls.add(method.getName());
+            return target;
+        });
+
+        Assertions.assertEquals(5, delegating.add(2, 3));
+        Assertions.assertEquals(4.5, delegating.mix(1L, "s", 2.5));
+        Assertions.assertEquals("Hello Implementation", delegating.greet());
+        Assertions.assertEquals(4, calls.size()); // intercepted when created, not per call
+    }
+
+    @Test
+    public void testFastReflection() throws Throwable {
+        Method getI = TestClass.class.getDeclaredMethod("getI");
+        FastMethod fastGetI = FastMethod.of(getI);
+        Assertions.assertSame(fastGetI, FastMethod.of(getI));
+        Assertions.assertEquals(5, fastGetI.invoke(new TestClass()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fastGetI.invoke("not a TestClass"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fastGetI.invoke(new TestClass(), 1));
+
+        Assertions.assertEquals(3, FastMethod.of(String.class.getMethod("length")).invoke("abc"));
+        Assertions.assertEquals("1,2", FastMethod.of(String.class.getMethod("join", CharSequence.class, CharSequence[].class)).invoke(null, ",", new String[]{"1", "2"}));
+        Method parseInt = Integer.class.getMethod("parseInt", String.class);
+        InvocationTargetException e = Assertions.assertThrows(InvocationTargetException.class, () -> FastMethod.of(parseInt).invoke(null, "x"));
+        Assertions.assertTrue(e.getCause() instanceof NumberFormatException);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FastMethod.of(parseInt).invoke(null, 5));
+        Assertions.assertEquals(5L, FastMethod.of(Math.class.getMethod("abs", long.class)).invoke(null, -5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FastMethod.of(Math.class.getMethod("abs", int.class)).invoke(null, 5L));
+
+        Method setStaticState = TestClass.class.getDeclaredMethod("setStaticState", int.class);
+        Assertions.assertThrows(IllegalAccessException.class, () -> FastMethod.of(setStaticState));
+
+        Constructor<TestClass> ctr = TestClass.class.getDeclaredConstructor(int.class);
+        ctr.setAccessible(true);
+        Assertions.assertEquals(7, FastConstructor.of(ctr).newInstance(7).getI());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FastConstructor.of(ctr).newInstance("7"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FastConstructor.of(ctr).newInstance((Object) null));
+
+        Field i = TestClass.class.getDeclaredField("i");
+        i.setAccessible(true);
+        FastField fastI = FastField.of(i);
+        TestClass testClass = new TestClass();
+        fastI.setInt(testClass, 10);
+        Assertions.assertEquals(10, fastI.getInt(testClass));
+        Assertions.assertEquals(10L, fastI.getLong(testClass));
+        fastI.setChar(testClass, 'a');
+        Assertions.assertEquals((int) 'a', fastI.get(testClass));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fastI.setLong(testClass, 1L));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fastI.getShort(testClass));
+
+        Field staticState = TestClass.class.getDeclaredField("staticState");
+        staticState.setAccessible(true);
+        FastField fastStatic = FastField.of(staticState);
+        int state = fastStatic.getInt(null);
+        fastStatic.setInt(null, 42);
+        Assertions.assertEquals(42, TestClass.getStaticState());
+        fastStatic.set(null, state);
+
+        FastField fastFinal = FastField.of(Integer.class.getField("MAX_VALUE"));
+        Assertions.assertEquals(Integer.MAX_VALUE, fastFinal.getInt(null));
+        Assertions.assertThrows(IllegalAccessException.class, () -> fastFinal.setInt(null, 1));
+
+        FastField fastX = FastField.of(Point2D.Double.class.getField("x"));
+        Point2D.Double point = new Point2D.Double();
+        fastX.setInt(point, 3);
+        Assertions.assertEquals(3.0, fastX.getDouble(point));
+        fastX.set(point, 2.5f);
+        Assertions.assertEquals(2.5, fastX.get(point));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fastX.getFloat(point));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fastX.set(point, "2.5"));
+
+        Field child = TestClass.class.getDeclaredField("child");
+        child.setAccessible(true);
+        FastField fastChild = FastField.of(child);
+        fastChild.set(testClass, testClass);
+        Assertions.assertSame(testClass, fastChild.get(testClass));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fastChild.getInt(testClass));
+    }
+
+    @Test
+    public void testFlyweight() throws Throwable {
+        FlyweightTestRecord record = FlyweightFactory.create(FlyweightTestRecord.class, 20);
+        Assertions.assertEquals(20, record.size());
+        record.wrap(ByteBuffer.allocateDirect(20 * 100), 0);
+        Assertions.assertEquals(100, record.capacity());
+        for (int i = 0; i < record.capacity(); i++) {
+            record.moveToRecord(i);
+            record.setId(i);
+            record.setX(i * 0.5);
+            record.setShort((short) -i);
+            record.setChar((char) ('a' + i % 26));
+            record.setAlive(i % 3 == 0);
+        }
+
+        record.moveTo(20 * 42);
+        Assertions.assertEquals(42, record.getId());
+        Assertions.assertEquals(21.0, record.getX());
+        Assertions.assertEquals(-42, record.getShort());
+        Assertions.assertEquals('a' + 42 % 26, record.getChar());
+        Assertions.assertTrue(record.isAlive());
+        Assertions.assertTrue(record.isEven());
+        Assertions.assertEquals(42, record.getBuffer().getInt(20 * 42));
+
+        Path file = Files.createTempFile("flyweight", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FlyweightTestRecord mapped = FlyweightFactory.create(FlyweightTestRecord.class, channel.map(FileChannel.MapMode.READ_WRITE, 0, 17 * 10));
+            Assertions.assertEquals(17, mapped.size());
+            mapped.moveToRecord(9);
+            mapped.setX(1.5);
+            Assertions.assertEquals(1.5, mapped.getX());
+            Assertions.assertFalse(mapped.isAlive());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FlyweightFactory.create(FlyweightTestRecord.class, 8));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FlyweightFactory.create(Runnable.class));
+    }
+
+    @Test
+    public void testColumn() throws Throwable {
+        CodecTestClass[] objects = new CodecTestClass[100_000];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = new CodecTestClass(i % 2 == 0, (byte) i, (char) i, (short) i, i, i, i, i, String.valueOf(i));
+        }
+
+        Column ints = ColumnFactory.create(CodecTestClass.class, "i");
+        int[] intArray = new int[objects.length];
+        ints.gather(objects, intArray);
+        Assertions.assertEquals(99_999, intArray[99_999]);
+        Arrays.fill(intArray, 0);
+        ints.gather(Arrays.asList(objects), intArray);
+        Assertions.assertEquals(42, intArray[42]);
+
+        for (int i = 0; i < intArray.length; i++) {
+            intArray[i] = -i;
+        }
+
+        ints.scatterParallel(intArray, objects, ForkJoinPool.commonPool());
+        int[] check = new int[objects.length];
+        ints.gatherParallel(objects, check, ForkJoinPool.commonPool());
+        Assertions.assertArrayEquals(intArray, check);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ints.gather(objects, new long[objects.length]));
+
+        Column booleans = ColumnFactory.create(CodecTestClass.class, "z");
+        Column doubles = ColumnFactory.create(CodecTestClass.class, "d");
+        ByteBuffer buffer = ByteBuffer.allocate(objects.length * 9);
+        booleans.gather(objects, buffer, 0);
+        doubles.gatherParallel(objects, buffer, objects.length, ForkJoinPool.commonPool());
+        Assertions.assertEquals(1, buffer.get(0));
+        Assertions.assertEquals(0, buffer.get(1));
+        Assertions.assertEquals(7.0, buffer.getDouble(objects.length + 7 * 8));
+
+        buffer.putDouble(objects.length + 7 * 8, 0.5);
+        buffer.put(0, (byte) 0);
+        booleans.scatter(buffer, 0, objects);
+        doubles.scatterParallel(buffer, objects.length, objects, ForkJoinPool.commonPool());
+        double[] doubleArray = new double[objects.length];
+        doubles.gather(objects, doubleArray);
+        Assertions.assertEquals(0.5, doubleArray[7]);
+        Assertions.assertEquals(8.0, doubleArray[8]);
+        boolean[] booleanArray = new boolean[objects.length];
+        booleans.gather(objects, booleanArray);
+        Assertions.assertFalse(booleanArray[0]);
+        Assertions.assertTrue(booleanArray[2]);
+
+        Column strings = ColumnFactory.create(CodecTestClass.class, "string");
+        String[] stringArray = new String[objects.length];
+        strings.gather(objects, stringArray);
+        Assertions.assertEquals("5", stringArray[5]);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> strings.gather(objects, buffer, 0));
+
+        Column xs = ColumnFactory.create(Point.class, "x");
+        int[] xArray = new int[2];
+        xs.gather(new Point[]{new Point(3, 4), new Point(5, 6)}, xArray);
+        Assertions.assertArrayEquals(new int[]{3, 5}, xArray);
+    }
+
+    @Test
+    public void testEquivalence() throws Throwable {
+        Equivalence<CodecTestClass> equivalence = EquivalenceFactory.create(CodecTestClass.class, "i", "d", "string");
+        CodecTestClass a = new CodecTestClass(true, (byte) 0, 'a', (short) 0, 1, 0.0f, 0L, Double.NaN, "a");
+        CodecTestClass b = new CodecTestClass(false, (byte) 1, 'b', (short) 1, 1, 1.0f, 1L, Double.NaN, "a");
+        CodecTestClass c = new CodecTestClass(true, (byte) 0, 'a', (short) 0, 1, 0.0f, 0L, Double.NaN, null);
+
+        Assertions.assertTrue(equivalence.equals(a, b));
+        Assertions.assertFalse(equivalence.equals(a, c));
+        Assertions.assertFalse(equivalence.equals(a, null));
+        Assertions.assertTrue(equivalence.equals(null, null));
+        Assertions.assertEquals(equivalence.hashCode(a), equivalence.hashCode(b));
+        Assertions.assertEquals(0, equivalence.compare(a, b));
+        Assertions.assertTrue(equivalence.compare(c, a) < 0);
+        Assertions.assertTrue(equivalence.compare(a, c) > 0);
+
+        Map<Equivalence.Key<CodecTestClass>, String> map = new HashMap<>();
+        map.put(equivalence.key(a), "a");
+        map.put(equivalence.key(b), "b");
+        map.put(equivalence.key(c), "c");
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals("b", map.get(equivalence.key(a)));
+
+        Equivalence<Point> points = EquivalenceFactory.create(Point.class, "x");
+        Assertions.assertTrue(points.equals(new Point(3, 4), new Point(3, 5)));
+        Assertions.assertFalse(points.equals(new Point(3, 4), new Point(4, 4)));
+    }
+
+    @Test
+    public void testEventBus() throws Throwable {
+        List<String> calls = new ArrayList<>();
+        EventTestListener listener = new EventTestListener(calls);
+        EventBus bus = new EventBus();
+        bus.post("nobody listens");
+        bus.register(listener);
+
+        bus.post("a");
+        Assertions.assertEquals(Arrays.asList("String a", "CharSequence a", "Object a"), calls);
+
+        calls.clear();
+        bus.post(1);
+        Assertions.assertEquals(Arrays.asList("Object 1"), calls);
+
+        calls.clear();
+        bus.unregister(listener);
+        bus.post("b");
+        Assertions.assertTrue(calls.isEmpty());
+
+        // the override and the overridden method are one subscriber.
+        EventTestListener overriding = new EventTestListener.Overriding(calls);
+        bus.register(overriding);
+        bus.post("c");
+        Assertions.assertEquals(Arrays.asList("String c", "CharSequence c", "Object c"), calls);
+    }
+
 }
@@ -0,0 +1,54 @@
+package me.earth.handlewrapper.util;
+
+@SuppressWarnings({"FieldMayBeFinal", "unused"})
+public class CodecTestClass {
+    private boolean z;
+    private byte b;
+    private char c;
+    private short s;
+    private int i;
+    private float f;
+    private long l;
+    private double d;
+    private String string;
+    private transient int ignored;
+
+    private CodecTestClass() {
+
+    }
+
+    public CodecTestClass(boolean z, byte b, char c, short s, int i, float f, long l, double d, String string) {
+        this.z = z;
+        this.b = b;
+        this.c = c;
+        this.s = s;
+        this.i = i;
+        this.f = f;
+        this.l = l;
+        this.d = d;
+        this.string = string;
+        this.ignored = i;
+    }
+
+    public int getIgnored() {
+        return ignored;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CodecTestClass)) {
+            return false;
+        }
+
+        CodecTestClass other = (CodecTestClass) o;
+        return z == other.z && b == other.b && c == other.c && s == other.s && i == other.i
+                && f == other.f && l == other.l && d == other.d
+                && (string == null ? other.string == null : string.equals(other.string));
+    }
+
+    @Override
+    public int hashCode() {
+        return i;
+    }
+
+}
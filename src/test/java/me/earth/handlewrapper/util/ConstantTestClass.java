@@ -0,0 +1,21 @@
+package me.earth.handlewrapper.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fields for the ConstantWrapper tests.
+ */
+@SuppressWarnings({"FieldMayBeFinal", "unused"})
+public class ConstantTestClass {
+    public static final int INT = 5;
+    public static final char CHAR = 'a';
+    public static final boolean BOOLEAN = true;
+    public static final String STRING = "constant";
+    public static final String NULL = null;
+    private static final List<String> LIST = Arrays.asList("a", "b");
+    public static int mutable = 5;
+
+    public long frozen = 10L;
+
+}
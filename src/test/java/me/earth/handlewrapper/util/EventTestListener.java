@@ -0,0 +1,43 @@
+package me.earth.handlewrapper.util;
+
+import me.earth.handlewrapper.Subscribe;
+
+import java.util.List;
+
+@SuppressWarnings("unused")
+public class EventTestListener {
+    private final List<String> calls;
+
+    public EventTestListener(List<String> calls) {
+        this.calls = calls;
+    }
+
+    @Subscribe
+    private void onObject(Object event) {
+        calls.add("Object " + event);
+    }
+
+    @Subscribe(priority = 10)
+    private void onString(String event) {
+        calls.add("String " + event);
+    }
+
+    @Subscribe(priority = 5)
+    public int onCharSequence(CharSequence event) {
+        calls.add("CharSequence " + event);
+        return 0;
+    }
+
+    public static class Overriding extends EventTestListener {
+        public Overriding(List<String> calls) {
+            super(calls);
+        }
+
+        @Override
+        @Subscribe(priority = 5)
+        public int onCharSequence(CharSequence event) {
+            return super.onCharSequence(event) + 1;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package me.earth.handlewrapper.util;
+
+import me.earth.handlewrapper.Offset;
+import me.earth.handlewrapper.wrappers.Flyweight;
+
+/**
+ * A record of 17 bytes for the flyweight tests, the boolean at offset 16 takes the last one.
+ */
+public interface FlyweightTestRecord extends Flyweight {
+    @Offset(0)
+    int getId();
+
+    @Offset(0)
+    void setId(int id);
+
+    @Offset(4)
+    double getX();
+
+    @Offset(4)
+    void setX(double x);
+
+    @Offset(12)
+    short getShort();
+
+    @Offset(12)
+    void setShort(short s);
+
+    @Offset(14)
+    char getChar();
+
+    @Offset(14)
+    void setChar(char c);
+
+    @Offset(16)
+    boolean isAlive();
+
+    @Offset(16)
+    void setAlive(boolean alive);
+
+    default boolean isEven() {
+        return getId() % 2 == 0;
+    }
+
+}
@@ -0,0 +1,37 @@
+package me.earth.handlewrapper.util;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Target and advice for the Interceptor tests, the advice records its calls.
+ */
+public class InterceptorTestClass {
+    public static final List<String> CALLS = new ArrayList<>();
+
+    public static int divide(int a, int b) {
+        CALLS.add("divide");
+        return a / b;
+    }
+
+    public static void before(int a, int b) {
+        CALLS.add("before");
+    }
+
+    public static int afterReturning(int result) {
+        CALLS.add("afterReturning");
+        return result + 1;
+    }
+
+    public static int afterThrowing(ArithmeticException e, int a, int b) {
+        CALLS.add("afterThrowing");
+        return -1;
+    }
+
+    public static int around(MethodHandle proceed, int a, int b) throws Throwable {
+        CALLS.add("around");
+        return (int) proceed.invokeExact(a * 2, b);
+    }
+
+}
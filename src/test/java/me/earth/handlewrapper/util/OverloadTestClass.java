@@ -0,0 +1,47 @@
+package me.earth.handlewrapper.util;
+
+/**
+ * Overloads for the OverloadWrapper tests, returning which one has been called.
+ */
+public class OverloadTestClass {
+    public String handle(Object o) {
+        return "Object";
+    }
+
+    public String handle(CharSequence s) {
+        return "CharSequence";
+    }
+
+    public String handle(String s) {
+        return "String";
+    }
+
+    public String handle(int i) {
+        return "int";
+    }
+
+    public String handle(String s, int i) {
+        return "String, int";
+    }
+
+    private String handle(double d) {
+        return "double";
+    }
+
+    public String ambiguous(Comparable<?> c) {
+        return "Comparable";
+    }
+
+    public String ambiguous(CharSequence s) {
+        return "CharSequence";
+    }
+
+    public static int staticOverload(int i) {
+        return i;
+    }
+
+    public String staticOverload(String s) {
+        return s;
+    }
+
+}
@@ -0,0 +1,19 @@
+package me.earth.handlewrapper.util;
+
+/**
+ * A path through a class that isn't public.
+ */
+@SuppressWarnings({"FieldMayBeFinal", "unused"})
+public class PathTestClass {
+    private Hidden hidden = new Hidden();
+
+    static class Hidden {
+        private int x = 3;
+        private String name = "hidden";
+
+        private Hidden self() {
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package me.earth.handlewrapper.util;
+
+/**
+ * Interface for the proxy tests, with primitives, a long/double
+ * mix for var offsets and a default method.
+ */
+public interface ProxyTestInterface {
+    int add(int a, int b);
+
+    double mix(long l, String s, double d);
+
+    String name();
+
+    default String greet() {
+        return "Hello " + name();
+    }
+
+    class Implementation implements ProxyTestInterface {
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public double mix(long l, String s, double d) {
+            return l + s.length() + d;
+        }
+
+        @Override
+        public String name() {
+            return "Implementation";
+        }
+    }
+
+}
@@ -5,6 +5,7 @@ public class TestClass {
     private static int staticState = 5;
 
     private int i = 5;
+    private TestClass child;
 
     public TestClass() {
 
@@ -18,6 +19,14 @@ public class TestClass {
         return i;
     }
 
+    public TestClass getChild() {
+        return child;
+    }
+
+    public void setChild(TestClass child) {
+        this.child = child;
+    }
+
     private static void setStaticState(int state) {
         staticState = state;
     }